@@ -0,0 +1,60 @@
+package quizgame;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answer evaluation throughput, both on the question types directly and through
+ * the engine's polymorphic evaluate over a mixed list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerCheckBenchmark {
+    private MultipleChoiceQuestion multipleChoice;
+    private TrueFalseQuestion trueFalse;
+    private List<Question> mixed;
+    private QuizEngine engine;
+    private int answer;
+
+    @Setup
+    public void setUp() {
+        multipleChoice = new MultipleChoiceQuestion("q", new String[]{"a", "b", "c", "d"}, 2, "");
+        trueFalse = new TrueFalseQuestion("q", true, "");
+        Question[] questions = new Question[64];
+        for (int i = 0; i < questions.length; i++) {
+            questions[i] = i % 2 == 0 ? multipleChoice : trueFalse;
+        }
+        mixed = Arrays.asList(questions);
+        engine = new QuizEngine();
+    }
+
+    @Benchmark
+    public boolean multipleChoiceIsCorrect() {
+        answer = (answer + 1) & 3;
+        return multipleChoice.isCorrect(answer);
+    }
+
+    @Benchmark
+    public boolean trueFalseIsCorrect() {
+        answer = (answer + 1) & 3;
+        return trueFalse.isCorrect(answer == 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void engineDispatch(Blackhole blackhole) {
+        engine.start(mixed, 1);
+        do {
+            answer = (answer + 1) & 3;
+            blackhole.consume(engine.submitAnswer(answer));
+        } while (engine.nextQuestion());
+    }
+}
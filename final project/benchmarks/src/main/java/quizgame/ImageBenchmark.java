@@ -0,0 +1,51 @@
+package quizgame;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode and scale latency for the question artwork, comparing the cache's
+ * loader with the getScaledInstance path the game used before and with decoding
+ * the pre-scaled image from the build's atlas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImageBenchmark {
+    @Param({"/images/mars.jpg", "/images/stars.png", "/images/periodic_table.png", "/images/programming.jpg"})
+    public String path;
+
+    private ImageAtlas atlas;
+
+    @Setup
+    public void openAtlas() {
+        atlas = ImageAtlas.open();
+    }
+
+    @Benchmark
+    public BufferedImage atlasDecode() {
+        return atlas.get(path, 300, 200);
+    }
+
+    @Benchmark
+    public BufferedImage decodeAndScale() throws IOException {
+        return ImageCache.scale(ImageIO.read(ImageBenchmark.class.getResource(path)), 300, 200);
+    }
+
+    @Benchmark
+    public int legacyScaledInstance() {
+        ImageIcon icon = new ImageIcon(ImageBenchmark.class.getResource(path));
+        Image img = icon.getImage().getScaledInstance(300, 200, Image.SCALE_SMOOTH);
+        // ImageIcon waits for the scaled image to be produced
+        return new ImageIcon(img).getIconWidth();
+    }
+}
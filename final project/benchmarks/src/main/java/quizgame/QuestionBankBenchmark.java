@@ -0,0 +1,61 @@
+package quizgame;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Question bank construction: compiling the bundled source into an index,
+ * opening the mapped index, and decoding a category.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionBankBenchmark {
+    private Path indexDir;
+    private QuestionBank bank;
+
+    @Setup
+    public void setUp() throws IOException {
+        indexDir = Files.createTempDirectory("quiz-bench");
+        System.setProperty("quiz.indexDir", indexDir.toString());
+        bank = QuestionBank.open();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(indexDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(indexDir);
+    }
+
+    @Benchmark
+    public Path compileIndex() throws IOException {
+        Path index = indexDir.resolve("compiled.qbi");
+        try (InputStream in = QuestionBank.class.getResourceAsStream(QuestionBank.DEFAULT_RESOURCE)) {
+            BankIndex.compile(in, 0, 0, QuestionBank.DEFAULT_RESOURCE, index);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public QuestionBank openIndex() throws IOException {
+        return QuestionBank.open();
+    }
+
+    @Benchmark
+    public List<Question> loadCategory() {
+        return bank.load("Science");
+    }
+}
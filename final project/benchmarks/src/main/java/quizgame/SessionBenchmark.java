@@ -0,0 +1,47 @@
+package quizgame;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full simulated two player sessions over a real category: every question is
+ * either answered after a few countdown ticks or left to time out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+    private List<Question> questions;
+    private QuizEngine engine;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() throws IOException {
+        questions = QuestionBank.open().load("History");
+        engine = new QuizEngine();
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public int session() {
+        engine.start(questions, 2);
+        do {
+            int ticks = random.nextInt(QuizEngine.QUESTION_TIME + 2);
+            QuizEngine.Outcome outcome = null;
+            for (int i = 0; i < ticks && outcome == null; i++) {
+                outcome = engine.tick();
+            }
+            if (outcome == null) {
+                engine.submitAnswer(random.nextInt(4));
+            }
+        } while (engine.nextQuestion());
+        return engine.getScore(0) + engine.getScore(1);
+    }
+}
@@ -0,0 +1,210 @@
+package quizgame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Chooses the questions of one category for one player (or the players of
+ * one game) so that their difficulty follows how well the player is doing.
+ *
+ * Every question of the category sits in an intrusive linked list for its
+ * {@link QuestionStats} difficulty level, and a bit mask records which levels
+ * are non-empty, so finding the question closest to a target level is a couple
+ * of bit operations and a list pop whatever the size of the category. Levels
+ * change as other games record answers; an entry found on a stale level is moved
+ * when it is popped.
+ *
+ * Each player has a target level that climbs after correct answers, more after
+ * quick ones, and drops further after wrong answers or timeouts. It settles
+ * where the player answers about two out of three questions correctly.
+ * Questions asked in a game go to the back of their level when the game ends,
+ * so they come around again only after the rest of that level.
+ */
+final class AdaptiveSelector {
+    private static final int BUCKETS = QuestionStats.BUCKETS;
+    private static final byte TAKEN = -1;
+    private static final int MAX_REPAIRS = 8;
+    private static final float STEP_UP = 1f;
+    private static final float STEP_UP_SLOW = 0.5f;
+    private static final float STEP_DOWN = 1.5f;
+
+    private final QuestionStats stats;
+    private final int firstId;
+    private final int size;
+    private final int[] next;
+    private final int[] prev;
+    private final byte[] levels;
+    private final int[] heads = new int[BUCKETS];
+    private final int[] tails = new int[BUCKETS];
+    private int nonEmpty;
+    private float[] targets = {BUCKETS / 2f, BUCKETS / 2f};
+
+    /**
+     * @param firstId the id of the first question of the category, see {@link QuestionBank#getFirstId}
+     * @param size    the number of questions in the category
+     */
+    AdaptiveSelector(QuestionStats stats, int firstId, int size) {
+        this.stats = stats;
+        this.firstId = firstId;
+        this.size = size;
+        next = new int[size];
+        prev = new int[size];
+        levels = new byte[size];
+        Arrays.fill(heads, -1);
+        Arrays.fill(tails, -1);
+        for (int i = 0; i < size; i++) {
+            link(i, stats.getBucket(firstId + i), true);
+        }
+    }
+
+    /**
+     * Tells whether the selector still covers the given id range; a reloaded
+     * bank moves a changed category to a new range.
+     */
+    boolean matches(int firstId, int size) {
+        return this.firstId == firstId && this.size == size;
+    }
+
+    /**
+     * Picks the first questions of a new game at the players' current levels.
+     */
+    List<Question> startGame(int count, int players, IntFunction<Question> loader) {
+        if (players > targets.length) {
+            int known = targets.length;
+            targets = Arrays.copyOf(targets, players);
+            Arrays.fill(targets, known, players, BUCKETS / 2f);
+        }
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int position = next(i % players);
+            if (position < 0) {
+                break;
+            }
+            questions.add(loader.apply(position));
+        }
+        return questions;
+    }
+
+    /**
+     * Records the outcome of the engine's current question, which must just have
+     * been answered or timed out, and replaces the following question with one
+     * that suits the level of the player whose turn comes next.
+     */
+    void afterAnswer(QuizEngine engine, IntFunction<Question> loader) {
+        int index = engine.getQuestionIndex();
+        int position = engine.getCurrentQuestion().getId() - firstId;
+        if (position >= 0 && position < size) {
+            answered(engine.getCurrentPlayer(), position, engine.getOutcome(index), engine.getLatencyMicros(index));
+        }
+        if (index + 1 < engine.getQuestionCount()) {
+            int chosen = next(engine.getPlayer(index + 1));
+            if (chosen >= 0) {
+                Question displaced = engine.setQuestion(index + 1, loader.apply(chosen));
+                putBack(displaced.getId() - firstId, false);
+            }
+        }
+    }
+
+    /**
+     * Returns the questions of a finished game to the back of their levels.
+     */
+    void finishGame(List<Question> questions) {
+        for (Question question : questions) {
+            putBack(question.getId() - firstId, true);
+        }
+    }
+
+    float getTarget(int player) {
+        return targets[player];
+    }
+
+    private void answered(int player, int position, QuizEngine.Outcome outcome, long latencyMicros) {
+        int id = firstId + position;
+        float step;
+        if (outcome == QuizEngine.Outcome.CORRECT) {
+            step = latencyMicros / 1000f <= stats.getLatencyMillis(id) ? STEP_UP : STEP_UP_SLOW;
+        } else {
+            step = -STEP_DOWN;
+        }
+        targets[player] = Math.max(0, Math.min(BUCKETS - 1, targets[player] + step));
+        stats.record(id, outcome == QuizEngine.Outcome.CORRECT, latencyMicros);
+    }
+
+    /**
+     * Takes the question closest to the player's target level out of the pool.
+     * Returns its position in the category, or -1 when every question is taken.
+     */
+    private int next(int player) {
+        for (int repairs = 0; ; repairs++) {
+            int level = nearestLevel(Math.round(targets[player]));
+            if (level < 0) {
+                return -1;
+            }
+            int position = heads[level];
+            int actual = stats.getBucket(firstId + position);
+            unlink(position);
+            if (actual == level || repairs >= MAX_REPAIRS) {
+                levels[position] = TAKEN;
+                return position;
+            }
+            link(position, actual, false);
+        }
+    }
+
+    private int nearestLevel(int target) {
+        int above = nonEmpty & (-1 << target);
+        int below = nonEmpty & ((1 << target) - 1);
+        if (above == 0 && below == 0) {
+            return -1;
+        }
+        int up = above == 0 ? Integer.MAX_VALUE : Integer.numberOfTrailingZeros(above);
+        int down = below == 0 ? Integer.MIN_VALUE / 2 : 31 - Integer.numberOfLeadingZeros(below);
+        return up - target <= target - down ? up : down;
+    }
+
+    private void putBack(int position, boolean atBack) {
+        if (position >= 0 && position < size && levels[position] == TAKEN) {
+            link(position, stats.getBucket(firstId + position), atBack);
+        }
+    }
+
+    private void link(int position, int level, boolean atBack) {
+        levels[position] = (byte) level;
+        if (heads[level] < 0) {
+            next[position] = -1;
+            prev[position] = -1;
+            heads[level] = position;
+            tails[level] = position;
+            nonEmpty |= 1 << level;
+        } else if (atBack) {
+            next[position] = -1;
+            prev[position] = tails[level];
+            next[tails[level]] = position;
+            tails[level] = position;
+        } else {
+            prev[position] = -1;
+            next[position] = heads[level];
+            prev[heads[level]] = position;
+            heads[level] = position;
+        }
+    }
+
+    private void unlink(int position) {
+        int level = levels[position];
+        if (prev[position] < 0) {
+            heads[level] = next[position];
+        } else {
+            next[prev[position]] = next[position];
+        }
+        if (next[position] < 0) {
+            tails[level] = prev[position];
+        } else {
+            prev[next[position]] = prev[position];
+        }
+        if (heads[level] < 0) {
+            nonEmpty &= ~(1 << level);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package quizgame;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build step that scales every image of the given directories to its display
+ * size and packs them into the atlas read by {@link ImageAtlas}. Each scaled
+ * image is stored compressed, as a PNG unless it is opaque and a JPEG is much
+ * smaller, so the pack stays about as small as its sources. Files with
+ * identical bytes share their packed image; the index keeps one entry per path.
+ *
+ * Usage: AtlasBuilder outputDir (sourceDir resourcePrefix WIDTHxHEIGHT)...
+ * e.g. AtlasBuilder target/classes/atlas images /images 300x200 icons /icons 24x24
+ */
+public final class AtlasBuilder {
+    // High enough that the re-encoded image cannot be told apart at its display size
+    private static final float JPEG_QUALITY = 0.92f;
+
+    private AtlasBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4 || (args.length - 1) % 3 != 0) {
+            System.err.println("usage: AtlasBuilder outputDir (sourceDir resourcePrefix WIDTHxHEIGHT)...");
+            System.exit(2);
+        }
+        Path outputDir = Paths.get(args[0]);
+        Files.createDirectories(outputDir);
+        List<String> keys = new ArrayList<>();
+        List<int[]> sizes = new ArrayList<>();
+        List<Long> hashes = new ArrayList<>();
+        List<long[]> regions = new ArrayList<>();
+        Map<String, long[]> packed = new HashMap<>();
+
+        Path packFile = outputDir.resolve("atlas.bin");
+        try (FileChannel pack = FileChannel.open(packFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int i = 1; i < args.length; i += 3) {
+                Path sourceDir = Paths.get(args[i]);
+                String prefix = args[i + 1].endsWith("/") ? args[i + 1] : args[i + 1] + "/";
+                String[] size = args[i + 2].split("x");
+                int width = Integer.parseInt(size[0]);
+                int height = Integer.parseInt(size[1]);
+                List<Path> files;
+                try (Stream<Path> list = Files.list(sourceDir)) {
+                    files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    byte[] content = Files.readAllBytes(file);
+                    long hash = ResourceResolver.contentHash(content);
+                    String packedKey = hash + "@" + width + 'x' + height;
+                    long[] existing = packed.get(packedKey);
+                    if (existing != null) {
+                        keys.add(prefix + file.getFileName());
+                        sizes.add(new int[]{width, height});
+                        hashes.add(hash);
+                        regions.add(existing);
+                        continue;
+                    }
+                    BufferedImage source = ImageIO.read(new ByteArrayInputStream(content));
+                    if (source == null) {
+                        System.err.println("AtlasBuilder: skipping " + file + ", not a readable image");
+                        continue;
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(encode(ImageCache.scale(source, width, height)));
+                    long[] region = {pack.position(), bytes.remaining()};
+                    keys.add(prefix + file.getFileName());
+                    sizes.add(new int[]{width, height});
+                    hashes.add(hash);
+                    regions.add(region);
+                    packed.put(packedKey, region);
+                    while (bytes.hasRemaining()) {
+                        pack.write(bytes);
+                    }
+                }
+            }
+        }
+
+        try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(outputDir.resolve("atlas.idx"))))) {
+            index.writeInt(ImageAtlas.MAGIC);
+            index.writeInt(ImageAtlas.VERSION);
+            index.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                index.writeUTF(keys.get(i));
+                index.writeShort(sizes.get(i)[0]);
+                index.writeShort(sizes.get(i)[1]);
+                index.writeLong(hashes.get(i));
+                index.writeLong(regions.get(i)[0]);
+                index.writeInt((int) regions.get(i)[1]);
+            }
+        }
+        System.out.println("AtlasBuilder: packed " + keys.size() + " images into " + packFile
+                + " (" + Files.size(packFile) / 1024 + " KiB)");
+    }
+
+    /**
+     * Photos shrink several times as JPEGs, while logos and line art stay
+     * small as PNGs and would show JPEG ringing around their edges.
+     */
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        if (!isOpaque(image)) {
+            ImageIO.write(image, "png", png);
+            return png.toByteArray();
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        ImageIO.write(rgb, "png", png);
+        byte[] jpeg = encodeJpeg(rgb);
+        return jpeg.length * 2 < png.size() ? jpeg : png.toByteArray();
+    }
+
+    private static byte[] encodeJpeg(BufferedImage rgb) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isOpaque(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return true;
+        }
+        for (int argb : image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth())) {
+            if (argb >>> 24 != 0xff) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
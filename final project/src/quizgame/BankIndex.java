@@ -0,0 +1,498 @@
+package quizgame;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * One tab separated question file compiled into a memory mapped binary index.
+ *
+ * The source is streamed once into the index, which is mapped again on every
+ * later start while the source keeps its size and modification time. Index
+ * files are named by the SHA-256 of the source path and record that path, so
+ * two sources never share or mistake each other's index. Opening
+ * an index only reads the category table; questions are decoded from the
+ * mapping on demand. Positions are relative to a category of this file;
+ * {@link QuestionBank} assigns the question ids.
+ */
+final class BankIndex {
+    private static final int MAGIC = 0x51424b31; // "QBK1"
+    private static final int VERSION = 5;
+    private static final int HEADER_SIZE = 44;
+    private static final int CATEGORY_ENTRY_SIZE = 24;
+    private static final byte TYPE_MULTIPLE_CHOICE = 1;
+    private static final byte TYPE_TRUE_FALSE = 2;
+    private static final byte TYPE_MULTI_SELECT = 3;
+    private static final byte TYPE_ORDERING = 4;
+    private static final byte TYPE_NUMERIC = 5;
+    private static final String TAGS_PREFIX = "tags=";
+    private static final String[] NO_TAGS = new String[0];
+
+    private final String source;
+    private final ByteBuffer index;
+    private final int categoriesOffset;
+    private final int stringTableOffset;
+    private final int stringDataOffset;
+    private final int recordsOffset;
+    private final Map<String, Integer> categoryEntries;
+
+    private BankIndex(String source, ByteBuffer index) throws IOException {
+        this.source = source;
+        this.index = index;
+        if (index.capacity() < HEADER_SIZE || index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+            throw new IOException("Not a question bank index");
+        }
+        int categoryCount = index.getInt(24);
+        // The source path follows the fixed header as a modified UTF-8 string
+        categoriesOffset = HEADER_SIZE + 2 + (index.getShort(HEADER_SIZE) & 0xffff);
+        stringTableOffset = (int) index.getLong(28);
+        recordsOffset = (int) index.getLong(36);
+        stringDataOffset = stringTableOffset + 4 + 4 * (index.getInt(stringTableOffset) + 1);
+
+        categoryEntries = new LinkedHashMap<>();
+        for (int i = 0; i < categoryCount; i++) {
+            int entry = categoriesOffset + i * CATEGORY_ENTRY_SIZE;
+            categoryEntries.put(string(index.getInt(entry)), entry);
+        }
+    }
+
+    /**
+     * Opens a bundled question resource, compiling it when its index is missing or stale.
+     */
+    static BankIndex open(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Paths.get(url.toURI()));
+            } catch (java.net.URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        URLConnection connection = url.openConnection();
+        Path indexPath = indexPathFor(url.toString());
+        if (!isCurrent(indexPath, url.toString(), connection.getContentLengthLong(), connection.getLastModified())) {
+            try (InputStream in = connection.getInputStream()) {
+                compile(in, connection.getContentLengthLong(), connection.getLastModified(), url.toString(), indexPath);
+            }
+        }
+        return new BankIndex(url.toString(), map(indexPath));
+    }
+
+    /**
+     * Opens a question file, compiling it when its index is missing or stale.
+     */
+    static BankIndex open(Path source) throws IOException {
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        String sourcePath = source.toAbsolutePath().toString();
+        Path indexPath = indexPathFor(sourcePath);
+        if (!isCurrent(indexPath, sourcePath, size, modified)) {
+            try (InputStream in = Files.newInputStream(source)) {
+                compile(in, size, modified, sourcePath, indexPath);
+            }
+        }
+        return new BankIndex(source.toAbsolutePath().toString(), map(indexPath));
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    long getSourceSize() {
+        return index.getLong(8);
+    }
+
+    long getSourceModified() {
+        return index.getLong(16);
+    }
+
+    /**
+     * Returns the categories in the order they first appear in the source.
+     */
+    Set<String> getCategories() {
+        return Collections.unmodifiableSet(categoryEntries.keySet());
+    }
+
+    int size(String category) {
+        Integer entry = categoryEntries.get(category);
+        return entry == null ? 0 : index.getInt(entry + 4);
+    }
+
+    /**
+     * Returns a hash of the source lines of the category; it changes whenever
+     * a question of the category is added, removed, edited or moved.
+     */
+    long contentHash(String category) {
+        Integer entry = categoryEntries.get(category);
+        return entry == null ? 0 : index.getLong(entry + 16);
+    }
+
+    /**
+     * Decodes the question at the given position of the category. Safe to call from several threads.
+     */
+    Question get(String category, int position, int id) {
+        return record(recordOffset(category, position), id);
+    }
+
+    /**
+     * Returns the image path of the question at the given position without decoding it.
+     */
+    String getImagePath(String category, int position) {
+        int imageId = index.getInt(recordOffset(category, position) + 9);
+        return imageId < 0 ? "" : string(imageId);
+    }
+
+    /**
+     * Returns the text of the question at the given position without decoding the rest of it.
+     */
+    String getText(String category, int position) {
+        int record = recordOffset(category, position);
+        return utf8(record + 17, index.getInt(record + 13));
+    }
+
+    /**
+     * Returns the search tags of the question at the given position without decoding it.
+     */
+    String[] getTags(String category, int position) {
+        int record = recordOffset(category, position);
+        byte type = index.get(record);
+        int p = record + 17 + index.getInt(record + 13);
+        if (type == TYPE_NUMERIC) {
+            p += 8;
+        } else if (type != TYPE_TRUE_FALSE) {
+            p += 1 + 4 * (index.get(p) & 0xff);
+        }
+        String[] tags = new String[index.get(p++) & 0xff];
+        for (int i = 0; i < tags.length; i++) {
+            tags[i] = string(index.getInt(p + 4 * i));
+        }
+        return tags;
+    }
+
+    private int recordOffset(String category, int position) {
+        Integer entry = categoryEntries.get(category);
+        if (entry == null || position < 0 || position >= index.getInt(entry + 4)) {
+            throw new IndexOutOfBoundsException("Question " + position + " of " + category);
+        }
+        int offsets = (int) index.getLong(entry + 8);
+        return recordsOffset + index.getInt(offsets + 4 * position);
+    }
+
+    private Question record(int position, int id) {
+        byte type = index.get(position);
+        long answer = index.getLong(position + 1);
+        int imageId = index.getInt(position + 9);
+        int textLength = index.getInt(position + 13);
+        String text = utf8(position + 17, textLength);
+        int p = position + 17 + textLength;
+        String imagePath = imageId < 0 ? "" : string(imageId);
+        if (type == TYPE_TRUE_FALSE) {
+            return new TrueFalseQuestion(id, text, answer != 0, imagePath);
+        }
+        if (type == TYPE_NUMERIC) {
+            return new NumericQuestion(id, text, Double.longBitsToDouble(answer), index.getDouble(p), imagePath);
+        }
+        int optionCount = index.get(p++) & 0xff;
+        String[] options = new String[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            options[i] = string(index.getInt(p + 4 * i));
+        }
+        if (type == TYPE_MULTI_SELECT) {
+            return new MultiSelectQuestion(id, text, options, answer, imagePath);
+        }
+        if (type == TYPE_ORDERING) {
+            return new OrderingQuestion(id, text, options, OrderingQuestion.decode(answer), imagePath);
+        }
+        return new MultipleChoiceQuestion(id, text, options, (int) answer, imagePath);
+    }
+
+    private String string(int id) {
+        int table = stringTableOffset + 4;
+        int start = index.getInt(table + 4 * id);
+        int end = index.getInt(table + 4 * (id + 1));
+        return utf8(stringDataOffset + start, end - start);
+    }
+
+    private String utf8(int position, int length) {
+        byte[] bytes = new byte[length];
+        index.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Path indexPathFor(String source) {
+        Path dir = Paths.get(System.getProperty("quiz.indexDir",
+                System.getProperty("java.io.tmpdir") + File.separator + "quizgame"));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(40);
+            // 128 bits are plenty to keep the paths apart
+            for (int i = 0; i < 16; i++) {
+                name.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return dir.resolve(name.append(".qbi").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isCurrent(Path indexPath, String source, long sourceSize, long sourceModified) {
+        if (!Files.isRegularFile(indexPath)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != sourceSize || in.readLong() != sourceModified) {
+                return false;
+            }
+            in.skipBytes(HEADER_SIZE - 24);
+            return in.readUTF().equals(source);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer map(Path indexPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Streams the source line by line into an index file. Records are spooled to a
+     * temporary file so only the interned strings and record offsets stay in memory.
+     */
+    static void compile(InputStream source, long sourceSize, long sourceModified, String sourcePath, Path indexPath)
+            throws IOException {
+        Files.createDirectories(indexPath.toAbsolutePath().getParent());
+        Path records = Files.createTempFile(indexPath.getParent(), "records", ".tmp");
+        Path partial = Files.createTempFile(indexPath.getParent(), "index", ".tmp");
+        try {
+            Map<String, Integer> stringIds = new HashMap<>();
+            List<String> strings = new ArrayList<>();
+            Map<String, IntList> categories = new LinkedHashMap<>();
+            Map<String, long[]> hashes = new HashMap<>();
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8));
+                 CountingOutputStream counter = new CountingOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(records)));
+                 DataOutputStream out = new DataOutputStream(counter)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] fields = line.split("\t", -1);
+                    if (fields.length < 5) {
+                        throw new IOException("Line " + lineNumber + ": expected at least 5 fields");
+                    }
+                    String category = fields[0];
+                    intern(category, stringIds, strings);
+                    categories.computeIfAbsent(category, k -> new IntList()).add((int) counter.count);
+                    long[] hash = hashes.computeIfAbsent(category, k -> new long[] {0xcbf29ce484222325L});
+                    hash[0] = fnv1a(hash[0], line);
+
+                    String image = fields[3];
+                    byte[] text = fields[4].getBytes(StandardCharsets.UTF_8);
+                    String[] tags = NO_TAGS;
+                    int fieldCount = fields.length;
+                    if (fieldCount > 5 && fields[fieldCount - 1].startsWith(TAGS_PREFIX)) {
+                        tags = parseTags(fields[--fieldCount]);
+                    }
+                    int optionCount = fieldCount - 5;
+                    byte type;
+                    long answer;
+                    double tolerance = 0;
+                    try {
+                        switch (fields[1]) {
+                            case "MC":
+                                type = TYPE_MULTIPLE_CHOICE;
+                                answer = Integer.parseInt(fields[2]);
+                                break;
+                            case "TF":
+                                type = TYPE_TRUE_FALSE;
+                                answer = Boolean.parseBoolean(fields[2]) ? 1 : 0;
+                                break;
+                            case "MULTI":
+                                type = TYPE_MULTI_SELECT;
+                                answer = MultiSelectQuestion.encode(parseIndices(fields[2]));
+                                break;
+                            case "ORDER":
+                                type = TYPE_ORDERING;
+                                answer = OrderingQuestion.encode(parseIndices(fields[2]));
+                                break;
+                            case "NUM":
+                                type = TYPE_NUMERIC;
+                                int separator = fields[2].indexOf('~');
+                                answer = NumericQuestion.encode(Double.parseDouble(
+                                        separator < 0 ? fields[2] : fields[2].substring(0, separator)));
+                                tolerance = separator < 0 ? 0 : Double.parseDouble(fields[2].substring(separator + 1));
+                                break;
+                            default:
+                                throw new IOException("Line " + lineNumber + ": unknown question type " + fields[1]);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Line " + lineNumber + ": bad answer " + fields[2]);
+                    }
+                    if (optionCount > 255 || tags.length > 255) {
+                        throw new IOException("Line " + lineNumber + ": too many options or tags");
+                    }
+
+                    out.writeByte(type);
+                    out.writeLong(answer);
+                    out.writeInt(image.isEmpty() ? -1 : intern(image, stringIds, strings));
+                    out.writeInt(text.length);
+                    out.write(text);
+                    if (type == TYPE_NUMERIC) {
+                        out.writeDouble(tolerance);
+                    } else if (type != TYPE_TRUE_FALSE) {
+                        out.writeByte(optionCount);
+                        for (int i = 5; i < fieldCount; i++) {
+                            out.writeInt(intern(fields[i], stringIds, strings));
+                        }
+                    }
+                    out.writeByte(tags.length);
+                    for (String tag : tags) {
+                        out.writeInt(intern(tag, stringIds, strings));
+                    }
+                }
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                ByteArrayOutputStream sourceName = new ByteArrayOutputStream();
+                new DataOutputStream(sourceName).writeUTF(sourcePath);
+                long offsetsStart = HEADER_SIZE + sourceName.size() + (long) categories.size() * CATEGORY_ENTRY_SIZE;
+                long offsetsSize = 0;
+                for (IntList offsets : categories.values()) {
+                    offsetsSize += 4L * offsets.size;
+                }
+                byte[][] encoded = new byte[strings.size()][];
+                long stringBytes = 0;
+                for (int i = 0; i < encoded.length; i++) {
+                    encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                    stringBytes += encoded[i].length;
+                }
+                long stringTable = offsetsStart + offsetsSize;
+                long recordsStart = stringTable + 4 + 4L * (encoded.length + 1) + stringBytes;
+                if (recordsStart + Files.size(records) > Integer.MAX_VALUE) {
+                    throw new IOException("Question bank index larger than 2 GB");
+                }
+
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceSize);
+                out.writeLong(sourceModified);
+                out.writeInt(categories.size());
+                out.writeLong(stringTable);
+                out.writeLong(recordsStart);
+                sourceName.writeTo(out);
+
+                long offsetsPosition = offsetsStart;
+                for (Map.Entry<String, IntList> category : categories.entrySet()) {
+                    out.writeInt(stringIds.get(category.getKey()));
+                    out.writeInt(category.getValue().size);
+                    out.writeLong(offsetsPosition);
+                    out.writeLong(hashes.get(category.getKey())[0]);
+                    offsetsPosition += 4L * category.getValue().size;
+                }
+                for (IntList offsets : categories.values()) {
+                    for (int i = 0; i < offsets.size; i++) {
+                        out.writeInt(offsets.values[i]);
+                    }
+                }
+
+                out.writeInt(encoded.length);
+                int stringOffset = 0;
+                out.writeInt(stringOffset);
+                for (byte[] bytes : encoded) {
+                    stringOffset += bytes.length;
+                    out.writeInt(stringOffset);
+                }
+                for (byte[] bytes : encoded) {
+                    out.write(bytes);
+                }
+                Files.copy(records, out);
+            }
+            Files.move(partial, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Parses the optional last field "tags=a,b"; tags are trimmed and lower case.
+     */
+    private static String[] parseTags(String field) {
+        return Arrays.stream(field.substring(TAGS_PREFIX.length()).split(","))
+                .map(tag -> tag.trim().toLowerCase(Locale.ROOT))
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private static long fnv1a(long hash, String line) {
+        for (int i = 0; i < line.length(); i++) {
+            hash = (hash ^ line.charAt(i)) * 0x100000001b3L;
+        }
+        return (hash ^ '\n') * 0x100000001b3L;
+    }
+
+    private static int[] parseIndices(String text) {
+        String[] parts = text.split(",");
+        int[] indices = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            indices[i] = Integer.parseInt(parts[i].trim());
+        }
+        return indices;
+    }
+
+    private static int intern(String value, Map<String, Integer> ids, List<String> strings) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
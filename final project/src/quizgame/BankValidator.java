@@ -0,0 +1,207 @@
+package quizgame;
+
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Checks every question of a bank in parallel: option counts, answer indices,
+ * images and duplicated question texts across all categories. Questions are
+ * decoded straight from the mapped index on the common fork-join pool, so the
+ * pass scales with the cores available.
+ *
+ * Run as a program to check a bank file before shipping it:
+ * {@code java -cp quizgame.jar quizgame.BankValidator [bank.tsv]} exits with
+ * status 1 when there are errors.
+ */
+final class BankValidator {
+    private BankValidator() {
+    }
+
+    static ValidationReport validate(QuestionBank bank) {
+        return validate(bank, path -> BankValidator.class.getResource(path) != null);
+    }
+
+    /**
+     * @param imageExists tells whether a non-empty image path can be loaded
+     */
+    static ValidationReport validate(QuestionBank bank, Predicate<String> imageExists) {
+        long start = System.nanoTime();
+        // A reloaded bank can leave ids of changed categories unused
+        int[] ids = bank.getCategories().stream()
+                .flatMapToInt(c -> IntStream.range(bank.getFirstId(c), bank.getFirstId(c) + bank.size(c)))
+                .toArray();
+        int count = ids.length;
+        Queue<ValidationReport.Issue> issues = new ConcurrentLinkedQueue<>();
+        Map<String, Boolean> images = new ConcurrentHashMap<>();
+        // Normalized text hash -> lowest id with that text, and every id seen for it
+        Map<Long, int[]> texts = new ConcurrentHashMap<>();
+        long[] hashes = new long[count];
+
+        IntStream.range(0, count).parallel().forEach(i -> {
+            int id = ids[i];
+            String category = bank.getCategory(id);
+            Question question;
+            try {
+                question = bank.get(id);
+            } catch (RuntimeException e) {
+                issues.add(error(ValidationReport.Kind.DECODE, id, category, e.getMessage()));
+                return;
+            }
+            check(question, category, issues);
+            String image = question.getImagePath();
+            if (image != null && !image.isEmpty() && !images.computeIfAbsent(image, imageExists::test)) {
+                issues.add(error(ValidationReport.Kind.MISSING_IMAGE, id, category, "no image resource " + image));
+            }
+            long hash = normalizedHash(question.getQuestionText());
+            hashes[i] = hash;
+            texts.merge(hash, new int[]{id, 1}, (a, b) -> new int[]{Math.min(a[0], b[0]), a[1] + b[1]});
+        });
+
+        for (int i = 0; i < count; i++) {
+            int id = ids[i];
+            int[] group = texts.get(hashes[i]);
+            if (group != null && group[1] > 1 && group[0] != id) {
+                issues.add(new ValidationReport.Issue(ValidationReport.Severity.WARNING, ValidationReport.Kind.DUPLICATE,
+                        id, bank.getCategory(id), "same text as question " + group[0] + " in " + bank.getCategory(group[0])));
+            }
+        }
+        return new ValidationReport(count, System.nanoTime() - start, issues);
+    }
+
+    private static void check(Question question, String category, Queue<ValidationReport.Issue> issues) {
+        int id = question.getId();
+        if (question.getQuestionText().trim().isEmpty()) {
+            issues.add(error(ValidationReport.Kind.EMPTY_TEXT, id, category, "empty question text"));
+        }
+        RenderDescriptor descriptor = question.getRenderDescriptor();
+        int options = descriptor.getLabelCount();
+        if (descriptor.getKind() != RenderDescriptor.InputKind.NUMERIC
+                && (options < 2 || options > RenderDescriptor.MAX_DISPLAYED_LABELS)) {
+            issues.add(error(ValidationReport.Kind.OPTION_COUNT, id, category, options
+                    + " options, expected 2 to " + RenderDescriptor.MAX_DISPLAYED_LABELS));
+        }
+        for (int i = 0; i < options; i++) {
+            if (descriptor.getLabel(i).trim().isEmpty()) {
+                issues.add(error(ValidationReport.Kind.EMPTY_TEXT, id, category, "option " + i + " is empty"));
+            }
+        }
+
+        if (question instanceof MultipleChoiceQuestion) {
+            int answer = ((MultipleChoiceQuestion) question).getCorrectAnswer();
+            if (answer < 0 || answer >= options) {
+                issues.add(error(ValidationReport.Kind.ANSWER_RANGE, id, category,
+                        "answer " + answer + " but " + options + " options"));
+            }
+        } else if (question instanceof MultiSelectQuestion) {
+            long mask = ((MultiSelectQuestion) question).getCorrectMask();
+            if (mask == 0 || (options < 64 && mask >>> options != 0)) {
+                issues.add(error(ValidationReport.Kind.ANSWER_RANGE, id, category,
+                        "answer mask " + Long.toBinaryString(mask) + " for " + options + " options"));
+            }
+        } else if (question instanceof OrderingQuestion) {
+            int[] order = OrderingQuestion.decode(((OrderingQuestion) question).getCorrectOrder());
+            int[] sorted = order.clone();
+            Arrays.sort(sorted);
+            for (int i = 0; i < sorted.length; i++) {
+                if (sorted[i] != i) {
+                    issues.add(error(ValidationReport.Kind.ANSWER_RANGE, id, category,
+                            "order " + Arrays.toString(order) + " is not a permutation of the options"));
+                    break;
+                }
+            }
+        } else if (question instanceof NumericQuestion) {
+            NumericQuestion numeric = (NumericQuestion) question;
+            if (!Double.isFinite(numeric.getCorrectValue()) || !(numeric.getTolerance() >= 0)
+                    || Double.isInfinite(numeric.getTolerance())) {
+                issues.add(error(ValidationReport.Kind.ANSWER_RANGE, id, category,
+                        "answer " + numeric.getCorrectValue() + " with tolerance " + numeric.getTolerance()));
+            }
+        }
+    }
+
+    private static ValidationReport.Issue error(ValidationReport.Kind kind, int id, String category, String message) {
+        return new ValidationReport.Issue(ValidationReport.Severity.ERROR, kind, id, category, message);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the text with case, accents, punctuation and extra
+     * spaces removed, so trivially different copies of a question collide. A lone
+     * letter from another script than the rest of the text, like the π in
+     * "the value of π (pi)", is taken for a symbol and left out as well.
+     */
+    static long normalizedHash(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD).toLowerCase(Locale.ROOT);
+        Character.UnicodeScript script = mainScript(decomposed);
+        long hash = 0xcbf29ce484222325L;
+        boolean started = false;
+        int length = decomposed.length();
+        int i = 0;
+        while (true) {
+            while (i < length && !Character.isLetterOrDigit(decomposed.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                return hash;
+            }
+            int wordStart = i;
+            int letters = 0;
+            for (char c; i < length && (Character.isLetterOrDigit(c = decomposed.charAt(i))
+                    || Character.getType(c) == Character.NON_SPACING_MARK); i++) {
+                if (Character.isLetterOrDigit(c)) {
+                    letters++;
+                }
+            }
+            char first = decomposed.charAt(wordStart);
+            if (letters == 1 && Character.isLetter(first) && Character.UnicodeScript.of(first) != script) {
+                continue;
+            }
+            if (started) {
+                hash = (hash ^ ' ') * 0x100000001b3L;
+            }
+            for (int j = wordStart; j < i; j++) {
+                char c = decomposed.charAt(j);
+                if (Character.isLetterOrDigit(c)) {
+                    hash = (hash ^ c) * 0x100000001b3L;
+                }
+            }
+            started = true;
+        }
+    }
+
+    /**
+     * Returns the script most letters of the text are written in.
+     */
+    private static Character.UnicodeScript mainScript(String text) {
+        Map<Character.UnicodeScript, Integer> letters = new EnumMap<>(Character.UnicodeScript.class);
+        Character.UnicodeScript main = Character.UnicodeScript.COMMON;
+        int most = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetter(c)) {
+                Character.UnicodeScript script = Character.UnicodeScript.of(c);
+                int count = letters.merge(script, 1, Integer::sum);
+                if (count > most) {
+                    most = count;
+                    main = script;
+                }
+            }
+        }
+        return main;
+    }
+
+    public static void main(String[] args) throws Exception {
+        QuestionBank bank = args.length > 0 ? QuestionBank.open(Paths.get(args[0])) : QuestionBank.open();
+        ValidationReport report = validate(bank);
+        System.out.print(report);
+        System.exit(report.hasErrors() ? 1 : 0);
+    }
+}
@@ -0,0 +1,131 @@
+package quizgame;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the question file, or the directory of question files, behind a
+ * {@link QuestionBank} and publishes a new snapshot when something changes,
+ * without restarting the game or the server.
+ *
+ * Changes are collected until the files have been quiet for a moment, then
+ * only the files whose size or modification time changed are recompiled; the
+ * others keep their mapped index. The new snapshot keeps the question ids of
+ * every unchanged category. A file that does not compile is reported on stderr
+ * and the current snapshot stays in place until it is fixed.
+ */
+final class BankWatcher {
+    private static final long QUIET_MILLIS = 200;
+
+    private final Path source;
+    private final Path directory;
+    private final Consumer<QuestionBank> listener;
+    private volatile QuestionBank current;
+
+    /**
+     * @param listener called on the watcher thread with every new snapshot
+     */
+    BankWatcher(Path source, QuestionBank initial, Consumer<QuestionBank> listener) {
+        this.source = source.toAbsolutePath();
+        this.directory = Files.isDirectory(this.source) ? this.source : this.source.getParent();
+        this.current = initial;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts watching the quiz.bank source of the given bank, or returns null
+     * when the bank comes from the bundled resource.
+     */
+    static BankWatcher watchConfigured(QuestionBank bank, Consumer<QuestionBank> listener) {
+        String source = System.getProperty("quiz.bank");
+        if (source == null) {
+            return null;
+        }
+        BankWatcher watcher = new BankWatcher(Paths.get(source), bank, listener);
+        try {
+            watcher.start();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return watcher;
+    }
+
+    QuestionBank getCurrent() {
+        return current;
+    }
+
+    void start() throws IOException {
+        WatchService service = directory.getFileSystem().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        Thread thread = new Thread(() -> run(service), "bank-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(WatchService service) {
+        try (WatchService s = service) {
+            while (true) {
+                WatchKey key = s.take();
+                boolean relevant = relevant(key);
+                // Editors and copies write in several steps; wait until the files settle
+                WatchKey more;
+                while ((more = s.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= relevant(more);
+                }
+                if (relevant) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | IOException e) {
+            // Stop watching
+        }
+    }
+
+    private boolean relevant(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (context instanceof Path) {
+                Path changed = directory.resolve((Path) context);
+                relevant |= directory.equals(source) ? changed.toString().endsWith(".tsv") : changed.equals(source);
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    /**
+     * Rebuilds the snapshot from the files now on disk and publishes it.
+     */
+    void reload() {
+        QuestionBank previous = current;
+        Map<String, BankIndex> loaded = new HashMap<>();
+        for (BankIndex index : previous.getSources()) {
+            loaded.put(index.getSource(), index);
+        }
+        try {
+            List<BankIndex> indexes = new ArrayList<>();
+            for (Path file : QuestionBank.sourceFiles(source)) {
+                BankIndex index = loaded.get(file.toString());
+                if (index == null || index.getSourceSize() != Files.size(file)
+                        || index.getSourceModified() != Files.getLastModifiedTime(file).toMillis()) {
+                    index = BankIndex.open(file);
+                }
+                indexes.add(index);
+            }
+            QuestionBank bank = new QuestionBank(indexes, previous);
+            current = bank;
+            System.out.println("Question bank reloaded: " + bank.getCategories().size() + " categories");
+            listener.accept(bank);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Question bank not reloaded, keeping the previous one: " + e.getMessage());
+        }
+    }
+}
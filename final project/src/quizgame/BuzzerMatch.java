@@ -0,0 +1,264 @@
+package quizgame;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A networked two player game where both players get every question at the
+ * same moment and the first correct answer to reach the server takes the
+ * point. A wrong answer locks that player out of the question; the question
+ * ends with the first correct answer, when both players are locked out, or when
+ * the time runs out.
+ *
+ * The server is the only authority. The whole state of the open question is
+ * one atomic word (question number, locked out players, closed flag, winner and
+ * the time the winner's answer was received), so concurrent answers from both
+ * connections and the timeout are arbitrated by compare-and-set without locks:
+ * exactly one of them closes the question and moves the match on. "First" goes
+ * by the receive time, not by which worker gets to the answer first. A correct
+ * answer therefore only claims the question, and the claim is settled
+ * {@link #SETTLE_MILLIS} later; an answer received earlier but processed in
+ * the meantime takes the claim over. When the other player is already locked
+ * out there is nobody to wait for and the question closes at once.
+ *
+ * A timeout only applies to the question it was scheduled for, so one that
+ * fires while that question is being closed cannot close the next one. Answer
+ * latency is measured per player with {@link System#nanoTime()} from sending
+ * the question to receiving the answer.
+ */
+final class BuzzerMatch {
+    private static final long WINNER_MASK = 0xFF;
+    private static final long LOCKED_SHIFT = 8;
+    private static final long ALL_LOCKED = 3L << LOCKED_SHIFT;
+    private static final long CLOSED = 1L << 15;
+    private static final int SEQUENCE_SHIFT = 16;
+    private static final long SEQUENCE_MASK = 0xFFFF;
+    // Microseconds from sending the question to receiving the claiming answer
+    private static final int CLAIM_SHIFT = 32;
+    static final long SETTLE_MILLIS = Long.getLong("quiz.buzzerSettleMillis", 50);
+
+    private final String category;
+    private final List<Question> questions;
+    private final GameClock clock;
+    private final Executor executor;
+    private volatile GameClock.Task timeoutTask;
+    private volatile GameClock.Task settleTask;
+    private final QuizServer.Connection[] players = new QuizServer.Connection[2];
+    private final AtomicIntegerArray scores = new AtomicIntegerArray(2);
+    private final LatencyHistogram[] latencies = {new LatencyHistogram(), new LatencyHistogram()};
+    private final AtomicLong state = new AtomicLong(CLOSED);
+    private volatile long questionSentNanos;
+    private volatile boolean over;
+    private int joined;
+
+    BuzzerMatch(String category, List<Question> questions, GameClock clock, Executor executor) {
+        this.category = category;
+        this.questions = questions;
+        this.clock = clock;
+        this.executor = executor;
+    }
+
+    String getCategory() {
+        return category;
+    }
+
+    /**
+     * Adds a player and starts the match once both are in. Returns the player
+     * number (0 or 1), or -1 when the match is already full.
+     */
+    int join(QuizServer.Connection connection) {
+        int player;
+        synchronized (this) {
+            if (joined == 2 || over) {
+                return -1;
+            }
+            player = joined++;
+            players[player] = connection;
+        }
+        if (player == 0) {
+            connection.send("WAITING");
+        } else {
+            for (int i = 0; i < 2; i++) {
+                players[i].send("MATCH\t" + (i + 1));
+            }
+            open(0);
+        }
+        return player;
+    }
+
+    boolean isOver() {
+        return over;
+    }
+
+    int getScore(int player) {
+        return scores.get(player);
+    }
+
+    /**
+     * Arbitrates an answer and returns the reply for the answering player, or
+     * null when the answer claimed or closed the question; the result is then
+     * sent to both players once the question closes.
+     *
+     * @param expected the question index the client answered, or -1 for the current one
+     * @param receivedNanos when the answer was read from the connection
+     */
+    String answer(int player, String text, int expected, long receivedNanos) {
+        long latencyMicros = Math.max(0, (receivedNanos - questionSentNanos) / 1000);
+        long receivedAt = Math.min(latencyMicros, 0xFFFFFFFFL);
+        while (true) {
+            long current = state.get();
+            int sequence = sequence(current);
+            if ((current & CLOSED) != 0 || (expected >= 0 && expected != sequence)) {
+                return "LATE";
+            }
+            boolean claimed = (current & WINNER_MASK) != 0;
+            if (claimed && receivedAt >= current >>> CLAIM_SHIFT) {
+                return "LATE";
+            }
+            if ((current & (1L << (LOCKED_SHIFT + player))) != 0) {
+                return "LOCKED";
+            }
+            Question question = questions.get(sequence);
+            long answer;
+            try {
+                answer = question.getRenderDescriptor().parseAnswer(text);
+            } catch (RuntimeException e) {
+                return "ERROR\tusage: ANSWER answer [index]";
+            }
+            boolean correct = question.evaluate(answer);
+            long next;
+            if (correct) {
+                // Replaces a claim received later, if there is one
+                next = (current & (SEQUENCE_MASK << SEQUENCE_SHIFT | ALL_LOCKED)) | (player + 1) | receivedAt << CLAIM_SHIFT;
+            } else {
+                next = current | (1L << (LOCKED_SHIFT + player));
+            }
+            long winner = next & WINNER_MASK;
+            // Nobody left who could still beat the claim, or nobody left to answer at all
+            if (winner != 0 ? (next & (1L << (LOCKED_SHIFT + 2 - winner))) != 0 : (next & ALL_LOCKED) == ALL_LOCKED) {
+                next |= CLOSED;
+            }
+            if (state.compareAndSet(current, next)) {
+                latencies[player].record(latencyMicros);
+                QuizMetrics.get().recordAnswer(category, question.getId(), latencyMicros);
+                if ((next & CLOSED) != 0) {
+                    close(sequence, next);
+                    return null;
+                }
+                if (!correct) {
+                    return "LOCKED";
+                }
+                if (!claimed) {
+                    GameClock.Task task = new GameClock.Task(() -> executor.execute(() -> timeout(sequence)));
+                    settleTask = task;
+                    clock.schedule(task, SETTLE_MILLIS);
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Ends the match early because a player left; the other player is told.
+     */
+    void leave(int player) {
+        if (over) {
+            return;
+        }
+        over = true;
+        state.getAndUpdate(s -> s | CLOSED);
+        cancelTimers();
+        QuizServer.Connection other = players[1 - player];
+        if (other != null) {
+            other.send("ERROR\topponent left");
+            other.send("OVER\t" + scores.get(0) + "\t" + scores.get(1));
+        }
+    }
+
+    /**
+     * Closes the question when its time runs out, or when the claim on it has
+     * settled; a claim still standing at the timeout wins as well.
+     */
+    private void timeout(int sequence) {
+        while (true) {
+            long current = state.get();
+            if ((current & CLOSED) != 0 || sequence(current) != sequence) {
+                return;
+            }
+            if (state.compareAndSet(current, current | CLOSED)) {
+                if ((current & WINNER_MASK) == 0) {
+                    QuizMetrics.get().recordTimeout();
+                }
+                close(sequence, current | CLOSED);
+                return;
+            }
+        }
+    }
+
+    private static int sequence(long state) {
+        return (int) (state >>> SEQUENCE_SHIFT & SEQUENCE_MASK);
+    }
+
+    /**
+     * Runs in the one thread whose compare-and-set closed the question.
+     */
+    private void close(int sequence, long closedState) {
+        cancelTimers();
+        int winner = (int) (closedState & WINNER_MASK) - 1;
+        QuizEngine.Outcome outcome;
+        if (winner >= 0) {
+            scores.incrementAndGet(winner);
+            outcome = QuizEngine.Outcome.CORRECT;
+        } else {
+            outcome = (closedState & ALL_LOCKED) == ALL_LOCKED ? QuizEngine.Outcome.INCORRECT : QuizEngine.Outcome.TIMEOUT;
+        }
+        broadcast("RESULT\t" + outcome + "\t" + scores.get(0) + "\t" + scores.get(1) + "\t" + (winner + 1));
+        open(sequence + 1);
+    }
+
+    private void open(int sequence) {
+        if (over) {
+            return;
+        }
+        if (sequence >= questions.size()) {
+            over = true;
+            broadcast("OVER\t" + scores.get(0) + "\t" + scores.get(1));
+            broadcast("LATENCY\t" + latencyFields(0) + "\t" + latencyFields(1));
+            return;
+        }
+        String line = QuizServer.questionLine(sequence, questions.size(), 0, QuizEngine.QUESTION_TIME, questions.get(sequence));
+        questionSentNanos = System.nanoTime();
+        state.set((long) sequence << SEQUENCE_SHIFT);
+        broadcast(line);
+        GameClock.Task task = new GameClock.Task(() -> executor.execute(() -> timeout(sequence)));
+        timeoutTask = task;
+        clock.schedule(task, QuizEngine.QUESTION_TIME * 1000L);
+    }
+
+    private void cancelTimers() {
+        GameClock.Task task = timeoutTask;
+        if (task != null) {
+            clock.cancel(task);
+        }
+        task = settleTask;
+        if (task != null) {
+            clock.cancel(task);
+        }
+    }
+
+    /**
+     * Answers, median and 99th percentile answer latency in milliseconds.
+     */
+    private String latencyFields(int player) {
+        LatencyHistogram histogram = latencies[player];
+        return histogram.getCount() + "\t" + histogram.getQuantile(0.5) / 1000.0 + "\t" + histogram.getQuantile(0.99) / 1000.0;
+    }
+
+    private void broadcast(String line) {
+        for (QuizServer.Connection player : players) {
+            player.send(line);
+        }
+    }
+}
@@ -0,0 +1,1074 @@
+package quizgame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class EnhancedQuizGameGUI extends JFrame {
+    private CompletableFuture<QuestionBank> questionBank;
+    private QuestionBank gameBank;
+    private CompletableFuture<SearchIndex> searchIndex;
+    private final QuizEngine engine = new QuizEngine();
+    // Players take the questions in turn; a tournament asks each of them a number of rounds
+    private static final int TOURNAMENT_MAX_PLAYERS = 500;
+    private static final int STANDINGS_LINES = 10;
+    private int playerCount = 1;
+    private int gameLength;
+
+    // Question draw: a fixed quiz.seed together with a fresh start replays the same games
+    private static final int QUESTIONS_PER_GAME = Integer.getInteger("quiz.questionsPerGame", 10);
+    private static final String CUSTOM_CATEGORY = "Custom";
+    private static final String STUDY_CATEGORY = "Study";
+    private final Map<String, QuestionSampler> samplers = new HashMap<>();
+    private String currentCategory;
+    private long gameSeed;
+
+    // Adaptive difficulty, used unless quiz.adaptive=false or a fixed quiz.seed asks for replayable games
+    private static final boolean ADAPTIVE = !"false".equals(System.getProperty("quiz.adaptive"));
+    private QuestionStats questionStats;
+    private final Map<String, AdaptiveSelector> selectors = new HashMap<>();
+    private AdaptiveSelector selector;
+    // Set quiz.recordFile to capture the input of every game for LoadGenerator
+    private static final String RECORD_FILE = System.getProperty("quiz.recordFile");
+    private SessionRecording.Recorder recorder;
+
+    // Session history and leaderboards
+    private static final int LEADERBOARD_LINES = 5;
+    private CompletableFuture<ScoreStore> scoreStore;
+    // Questions answered wrongly in one player games come back in study sessions
+    private CompletableFuture<StudyDeck> studyDeck;
+    // Every deck call runs here, so the EDT never waits for the deck's lock or its page faults
+    private final ExecutorService deckWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "study-deck");
+        t.setDaemon(true);
+        return t;
+    });
+    // Built from studyKeysSource, and rebuilt when the bank is reloaded
+    private CompletableFuture<StudyDeck.Keys> studyKeys;
+    private CompletableFuture<QuestionBank> studyKeysSource;
+    private boolean studyStarting;
+    private String customQuery;
+
+    private JPanel cardPanel;
+    private CardLayout cardLayout;
+    private JPanel menuPanel;
+    private JPanel categoryPanel;
+    private JPanel categoryButtons;
+    private JPanel gamePanel;
+    // The card on screen and the one the next question is prepared in
+    private CardLayout deckLayout;
+    private JPanel questionDeck;
+    private QuestionCard card;
+    private QuestionCard nextCard;
+    private JLabel debugLabel;
+    private RenderDescriptor currentDescriptor;
+    private long selectedMask;
+    private int orderCount;
+    private final int[] selectedOrder = new int[4];
+    private JLabel timerLabel;
+    private JLabel scoreLabel;
+
+    // Game timing, all driven by one clock
+    private static final int TRANSITION_DELAY = 1500;
+    // Lets the feedback paint before the next card is prepared
+    private static final int PRERENDER_DELAY = 100;
+    private final GameClock clock = GameClock.swing(Integer.getInteger("quiz.clockResolutionMs", 10));
+    private final GameClock.Task countdownTask = new GameClock.Task(this::updateTimer);
+    private final GameClock.Task transitionTask = new GameClock.Task(this::advanceQuestion);
+    private final GameClock.Task prerenderTask = new GameClock.Task(this::prerenderNextQuestion);
+    private final GameClock.Task feedbackRemovalTask = new GameClock.Task(this::removeFeedback);
+    private final GameClock.Task fadeTask = new GameClock.Task(this::fadeStep);
+    private final GameClock.Task debugOverlayTask = new GameClock.Task(this::updateDebugOverlay);
+    private final FrameStats frameStats = new FrameStats();
+
+    // Custom colors
+    private final Color BACKGROUND_COLOR = new Color(240, 248, 255); // Alice Blue
+    private final Color PRIMARY_COLOR = new Color(70, 130, 180);    // Steel Blue
+    private final Color SECONDARY_COLOR = new Color(255, 165, 0);   // Orange
+    private final Color TEXT_COLOR = new Color(47, 79, 79);         // Dark Slate Gray
+
+    // Answer button borders, the selected one marks picked options
+    private final javax.swing.border.Border BUTTON_BORDER = BorderFactory.createEmptyBorder(10, 20, 10, 20);
+    private final javax.swing.border.Border SELECTED_BUTTON_BORDER = BorderFactory.createCompoundBorder(
+            BorderFactory.createLineBorder(TEXT_COLOR, 2), BorderFactory.createEmptyBorder(8, 18, 8, 18));
+
+    // Roboto fonts; the UI uses the Black weight throughout
+    private final FontManager fonts = new FontManager("/Roboto/Roboto-");
+
+    // Question artwork
+    private static final int IMAGE_WIDTH = 300;
+    private static final int IMAGE_HEIGHT = 200;
+    private static final int IMAGE_PREFETCH_COUNT = 3;
+    private static final int ICON_SIZE = 24;
+    // Holds the place of an icon that is still loading so the button does not change size
+    private static final Icon ICON_PLACEHOLDER = new ImageIcon(new BufferedImage(
+            ICON_SIZE, ICON_SIZE, BufferedImage.TYPE_INT_ARGB));
+    private static final Map<String, String> CATEGORY_ICONS = Map.of(
+        "Math", "/icons/iconmath.png",
+        "Science", "/icons/iconscience.png",
+        "History", "/icons/iconhistory.jpg",
+        "Programming", "/icons/iconprogramming.png");
+    private final ImageCache imageCache = new ImageCache(Long.getLong("quiz.imageCacheBytes", 32L << 20), 2);
+    // The width the question text took as a 400px HTML body, so cards keep their size
+    private static final int QUESTION_WRAP_WIDTH = 520;
+    private final TextLayoutCache textLayouts = new TextLayoutCache(256);
+
+    public EnhancedQuizGameGUI() {
+        setTitle("Ultimate Quiz Game");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(800, 600);
+        setLocationRelativeTo(null);
+        setResizable(false);
+
+        cardLayout = new CardLayout();
+        cardPanel = new JPanel(cardLayout);
+        cardPanel.setBackground(BACKGROUND_COLOR);
+
+        createMenuPanel();
+        cardPanel.add(menuPanel, "menu");
+        add(cardPanel);
+
+        initializeQuestions();
+        initializeScoreStore();
+        initializeStudyDeck();
+        if (Boolean.getBoolean("quiz.eagerStartup")) {
+            questionBank.join();
+            ensureGamePanels();
+        } else {
+            // Only the menu is needed for the first frame; the rest is prepared in the background
+            for (String iconPath : CATEGORY_ICONS.values()) {
+                imageCache.prefetch(iconPath, ICON_SIZE, ICON_SIZE);
+            }
+            questionBank.thenRun(() -> SwingUtilities.invokeLater(() -> {
+                ensureGamePanels();
+                StartupMetrics.milestone(StartupMetrics.BACKGROUND_READY);
+            }));
+        }
+    }
+
+    private void initializeQuestions() {
+        questionBank = CompletableFuture.supplyAsync(() -> {
+            try {
+                QuestionBank bank = QuestionBank.open();
+                ValidationReport report = BankValidator.validate(bank);
+                if (!report.getIssues().isEmpty()) {
+                    System.err.print(report);
+                }
+                // Resolve every image once so showing a question never goes to the classloader
+                imageCache.validate(bank.getImagePaths());
+                imageCache.validate(CATEGORY_ICONS.values());
+                BankWatcher.watchConfigured(bank, this::bankReloaded);
+                return bank;
+            } catch (Exception e) {
+                e.printStackTrace();
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(null, "Could not load the question bank:\n" + e.getMessage(),
+                            "Question Bank", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                });
+                throw new IllegalStateException(e);
+            }
+        });
+        searchIndex = questionBank.thenApplyAsync(SearchIndex::new);
+    }
+
+    /**
+     * Called on the watcher thread with a new snapshot of the bank. New games
+     * use it; the game in progress keeps its own.
+     */
+    private void bankReloaded(QuestionBank bank) {
+        ValidationReport report = BankValidator.validate(bank);
+        if (!report.getIssues().isEmpty()) {
+            System.err.print(report);
+        }
+        imageCache.validate(bank.getImagePaths());
+        SearchIndex index = new SearchIndex(bank);
+        SwingUtilities.invokeLater(() -> {
+            questionBank = CompletableFuture.completedFuture(bank);
+            searchIndex = CompletableFuture.completedFuture(index);
+            if (categoryButtons != null) {
+                refreshCategoryButtons(bank);
+            }
+        });
+    }
+
+    private void initializeScoreStore() {
+        scoreStore = CompletableFuture.supplyAsync(() -> {
+            try {
+                ScoreStore store = ScoreStore.open();
+                Runtime.getRuntime().addShutdownHook(new Thread(store::close, "score-store-close"));
+                return store;
+            } catch (Exception e) {
+                // Games still work without history, they are just not recorded
+                e.printStackTrace();
+                return null;
+            }
+        });
+    }
+
+    private void initializeStudyDeck() {
+        studyDeck = CompletableFuture.supplyAsync(() -> {
+            try {
+                StudyDeck deck = StudyDeck.open();
+                Runtime.getRuntime().addShutdownHook(new Thread(deck::close, "study-deck-close"));
+                return deck;
+            } catch (Exception e) {
+                // Games still work without a deck, wrong answers just do not come back
+                e.printStackTrace();
+                return null;
+            }
+        }, deckWriter);
+    }
+
+    private void ensureGamePanels() {
+        if (categoryPanel != null) {
+            return;
+        }
+        createCategoryPanel();
+        createGamePanel();
+        cardPanel.add(categoryPanel, "category");
+        cardPanel.add(gamePanel, "game");
+    }
+
+    private void createMenuPanel() {
+        menuPanel = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                Graphics2D g2d = (Graphics2D) g.create();
+                int w = getWidth();
+                int h = getHeight();
+                GradientPaint gp = new GradientPaint(0, 0, BACKGROUND_COLOR, 0, h, PRIMARY_COLOR);
+                g2d.setPaint(gp);
+                g2d.fillRect(0, 0, w, h);
+                g2d.dispose();
+                StartupMetrics.milestone(StartupMetrics.FIRST_FRAME);
+            }
+        };
+        menuPanel.setLayout(new BoxLayout(menuPanel, BoxLayout.Y_AXIS));
+        menuPanel.setBorder(BorderFactory.createEmptyBorder(50, 0, 50, 0));
+
+        JLabel titleLabel = new JLabel("Ultimate Quiz Game");
+        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        titleLabel.setFont(font(Font.BOLD, 36));
+        titleLabel.setForeground(TEXT_COLOR);
+
+        JButton singlePlayerButton = createStyledButton("Single Player", "/icons/single_player.png");
+        JButton twoPlayerButton = createStyledButton("Two Player", "/icons/two_player.png");
+        JButton tournamentButton = createStyledButton("Tournament", null);
+        JButton studyButton = createStyledButton("Study", null);
+        JButton exitButton = createStyledButton("Exit", "/icons/exit.png");
+
+        singlePlayerButton.addActionListener(e -> showCategorySelection(1, QUESTIONS_PER_GAME));
+        twoPlayerButton.addActionListener(e -> showCategorySelection(2, QUESTIONS_PER_GAME));
+        tournamentButton.addActionListener(e -> showTournamentSetup());
+        studyButton.addActionListener(e -> startStudy());
+        exitButton.addActionListener(e -> System.exit(0));
+
+        menuPanel.add(titleLabel);
+        menuPanel.add(Box.createRigidArea(new Dimension(0, 40)));
+        menuPanel.add(singlePlayerButton);
+        menuPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        menuPanel.add(twoPlayerButton);
+        menuPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        menuPanel.add(tournamentButton);
+        menuPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        menuPanel.add(studyButton);
+        menuPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        menuPanel.add(exitButton);
+    }
+
+    private void createCategoryPanel() {
+        categoryPanel = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                Graphics2D g2d = (Graphics2D) g.create();
+                int w = getWidth();
+                int h = getHeight();
+                GradientPaint gp = new GradientPaint(0, 0, BACKGROUND_COLOR, 0, h, PRIMARY_COLOR);
+                g2d.setPaint(gp);
+                g2d.fillRect(0, 0, w, h);
+                g2d.dispose();
+            }
+        };
+        categoryPanel.setLayout(new BoxLayout(categoryPanel, BoxLayout.Y_AXIS));
+        categoryPanel.setBorder(BorderFactory.createEmptyBorder(50, 0, 50, 0));
+
+        JLabel titleLabel = new JLabel("Select a Category");
+        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        titleLabel.setFont(font(Font.BOLD, 36));
+        titleLabel.setForeground(TEXT_COLOR);
+
+        categoryButtons = new JPanel();
+        categoryButtons.setOpaque(false);
+        categoryButtons.setLayout(new BoxLayout(categoryButtons, BoxLayout.Y_AXIS));
+        QuestionBank bank = questionBank.getNow(null);
+        if (bank != null) {
+            refreshCategoryButtons(bank);
+        } else {
+            // The buttons come with the bank; the EDT never waits for it
+            JLabel loadingLabel = new JLabel("Loading categories...");
+            loadingLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            loadingLabel.setFont(font(Font.PLAIN, 18));
+            loadingLabel.setForeground(TEXT_COLOR);
+            categoryButtons.add(loadingLabel);
+            questionBank.thenAccept(loaded -> SwingUtilities.invokeLater(() -> refreshCategoryButtons(loaded)));
+        }
+
+        categoryPanel.add(titleLabel);
+        categoryPanel.add(Box.createRigidArea(new Dimension(0, 40)));
+        categoryPanel.add(categoryButtons);
+
+        JButton customButton = createStyledButton("Custom Quiz", null);
+        customButton.addActionListener(e -> startCustomGame());
+        categoryPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        categoryPanel.add(customButton);
+
+        JButton searchButton = createStyledButton("Search Questions", null);
+        searchButton.addActionListener(e -> new QuestionSearchDialog(this, searchIndex).setVisible(true));
+        categoryPanel.add(Box.createRigidArea(new Dimension(0, 20)));
+        categoryPanel.add(searchButton);
+    }
+
+    /**
+     * One button per category of the bank, in bank order; categories without a bundled icon get none.
+     */
+    private void refreshCategoryButtons(QuestionBank bank) {
+        categoryButtons.removeAll();
+        for (String category : bank.getCategories()) {
+            if (categoryButtons.getComponentCount() > 0) {
+                categoryButtons.add(Box.createRigidArea(new Dimension(0, 20)));
+            }
+            JButton button = createStyledButton(category, CATEGORY_ICONS.get(category));
+            button.addActionListener(e -> startGame(category));
+            categoryButtons.add(button);
+        }
+        categoryButtons.revalidate();
+        categoryButtons.repaint();
+    }
+
+    private void createGamePanel() {
+        gamePanel = new JPanel(new BorderLayout());
+        gamePanel.setBackground(BACKGROUND_COLOR);
+
+        deckLayout = new CardLayout();
+        questionDeck = new JPanel(deckLayout);
+        questionDeck.setOpaque(false);
+        card = new QuestionCard("a");
+        nextCard = new QuestionCard("b");
+        questionDeck.add(card, card.getName());
+        questionDeck.add(nextCard, nextCard.getName());
+        gamePanel.add(questionDeck, BorderLayout.CENTER);
+
+        JPanel infoPanel = new JPanel(new BorderLayout());
+        infoPanel.setBackground(PRIMARY_COLOR);
+        infoPanel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+
+        timerLabel = new JLabel("Time: 15");
+        timerLabel.setFont(font(Font.PLAIN, 18));
+        timerLabel.setForeground(Color.WHITE);
+
+        scoreLabel = new JLabel("Score: 0");
+        scoreLabel.setFont(font(Font.PLAIN, 18));
+        scoreLabel.setForeground(Color.WHITE);
+
+        debugLabel = new JLabel();
+        debugLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        debugLabel.setFont(font(Font.PLAIN, 11));
+        debugLabel.setForeground(Color.WHITE);
+        debugLabel.setVisible(false);
+
+        infoPanel.add(timerLabel, BorderLayout.WEST);
+        infoPanel.add(debugLabel, BorderLayout.CENTER);
+        infoPanel.add(scoreLabel, BorderLayout.EAST);
+        gamePanel.add(infoPanel, BorderLayout.NORTH);
+
+        // F3 toggles the frame time overlay
+        gamePanel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "debugOverlay");
+        gamePanel.getActionMap().put("debugOverlay", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setDebugOverlayVisible(!debugLabel.isVisible());
+            }
+        });
+        setDebugOverlayVisible(Boolean.getBoolean("quiz.debugOverlay"));
+    }
+
+    /**
+     * One question card. The component tree is fixed; a question only changes
+     * texts, icons and visibility. While the feedback for an answer shows, the
+     * next question is filled into the hidden card and rendered off-screen, so
+     * the transition is a card swap and a fade over a finished image.
+     */
+    private final class QuestionCard extends FadePanel {
+        final JLabel feedbackLabel = new JLabel();
+        final TextBlockLabel questionLabel = new TextBlockLabel();
+        final JLabel imageLabel = new JLabel();
+        final Component imageGap = Box.createRigidArea(new Dimension(0, 20));
+        final JButton[] answerButtons = new JButton[RenderDescriptor.MAX_DISPLAYED_LABELS];
+        final JTextField numericField = new JTextField();
+        final JButton submitButton = createStyledButton("Submit", null);
+        Question question;
+
+        QuestionCard(String name) {
+            setName(name);
+            setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+            setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+            setFrameStats(frameStats);
+
+            feedbackLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            feedbackLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            feedbackLabel.setFont(font(Font.BOLD, 24));
+            Dimension feedbackSize = new Dimension(400, 32);
+            feedbackLabel.setMinimumSize(feedbackSize);
+            feedbackLabel.setPreferredSize(feedbackSize);
+            feedbackLabel.setMaximumSize(feedbackSize);
+
+            questionLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            questionLabel.setFont(font(Font.BOLD, 20));
+            questionLabel.setForeground(TEXT_COLOR);
+
+            imageLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+            for (int i = 0; i < answerButtons.length; i++) {
+                answerButtons[i] = createStyledButton("", null);
+                final int index = i;
+                answerButtons[i].addActionListener(e -> selectOption(index));
+            }
+
+            numericField.setFont(font(Font.PLAIN, 18));
+            numericField.setHorizontalAlignment(JTextField.CENTER);
+            numericField.setMaximumSize(new Dimension(200, 40));
+            numericField.setAlignmentX(Component.CENTER_ALIGNMENT);
+            numericField.addActionListener(e -> submitInput());
+
+            submitButton.addActionListener(e -> submitInput());
+
+            add(feedbackLabel);
+            add(questionLabel);
+            add(imageLabel);
+            add(imageGap);
+            add(Box.createRigidArea(new Dimension(0, 20)));
+            for (JButton button : answerButtons) {
+                add(button);
+                add(Box.createRigidArea(new Dimension(0, 10)));
+            }
+            add(numericField);
+            add(Box.createRigidArea(new Dimension(0, 10)));
+            add(submitButton);
+        }
+
+        void fill(Question question) {
+            long start = System.nanoTime();
+            this.question = question;
+            feedbackLabel.setText("");
+            questionLabel.setBlock(textLayouts.get(question, questionLabel.getFont(), QUESTION_WRAP_WIDTH));
+            CompletableFuture<ImageIcon> icon = imageCache.getAsync(question.getImagePath(), IMAGE_WIDTH, IMAGE_HEIGHT);
+            if (icon.isDone()) {
+                showImage(icon.join());
+            } else {
+                // Not prefetched in time; show the question now and the image once it is decoded
+                showImage(null);
+                icon.thenAccept(loaded -> SwingUtilities.invokeLater(() -> {
+                    if (this.question == question) {
+                        showImage(loaded);
+                    }
+                }));
+            }
+
+            RenderDescriptor descriptor = question.getRenderDescriptor();
+            int labelCount = descriptor.getLabelCount();
+            for (int i = 0; i < answerButtons.length; i++) {
+                if (i < labelCount) {
+                    answerButtons[i].setText(descriptor.getLabel(i));
+                    answerButtons[i].setBorder(BUTTON_BORDER);
+                }
+                answerButtons[i].setVisible(i < labelCount);
+            }
+            RenderDescriptor.InputKind kind = descriptor.getKind();
+            numericField.setText("");
+            numericField.setVisible(kind == RenderDescriptor.InputKind.NUMERIC);
+            submitButton.setVisible(kind == RenderDescriptor.InputKind.NUMERIC || kind == RenderDescriptor.InputKind.MULTI_SELECT);
+            QuizMetrics.get().panelRebuild.record(QuizMetrics.micros(start));
+        }
+
+        private void showImage(ImageIcon icon) {
+            imageLabel.setIcon(icon);
+            imageLabel.setVisible(icon != null);
+            imageGap.setVisible(icon != null);
+        }
+    }
+
+    private void setDebugOverlayVisible(boolean visible) {
+        debugLabel.setVisible(visible);
+        if (visible) {
+            frameStats.sample();
+            clock.scheduleAtFixedRate(debugOverlayTask, 500, 500);
+        } else {
+            clock.cancel(debugOverlayTask);
+        }
+    }
+
+    private void updateDebugOverlay() {
+        debugLabel.setText(frameStats.sample());
+    }
+
+    private Font font(int style, float size) {
+        return fonts.get(FontManager.Weight.BLACK, style, size);
+    }
+
+    private JButton createStyledButton(String text, String iconPath) {
+        JButton button = new JButton(text);
+        button.setAlignmentX(Component.CENTER_ALIGNMENT);
+        button.setFont(font(Font.PLAIN, 18));
+        button.setForeground(TEXT_COLOR);
+        button.setBackground(SECONDARY_COLOR);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setContentAreaFilled(false);
+        button.setOpaque(true);
+        button.setBorder(BUTTON_BORDER);
+        
+        if (iconPath != null) {
+            CompletableFuture<ImageIcon> icon = imageCache.getAsync(iconPath, ICON_SIZE, ICON_SIZE);
+            if (icon.isDone()) {
+                button.setIcon(icon.join());
+            } else {
+                button.setIcon(ICON_PLACEHOLDER);
+                icon.thenAccept(loaded -> SwingUtilities.invokeLater(() -> button.setIcon(loaded)));
+            }
+        }
+
+        button.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                button.setBackground(SECONDARY_COLOR.brighter());
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                button.setBackground(SECONDARY_COLOR);
+            }
+        });
+
+        return button;
+    }
+
+    private void showCategorySelection(int players, int questions) {
+        playerCount = players;
+        gameLength = questions;
+        ensureGamePanels();
+        cardLayout.show(cardPanel, "category");
+    }
+
+    /**
+     * Asks for the number of players and rounds; every player gets one question per round.
+     */
+    private void showTournamentSetup() {
+        JSpinner players = new JSpinner(new SpinnerNumberModel(30, 2, TOURNAMENT_MAX_PLAYERS, 1));
+        JSpinner rounds = new JSpinner(new SpinnerNumberModel(3, 1, 20, 1));
+        JPanel setup = new JPanel(new GridLayout(2, 2, 10, 10));
+        setup.add(new JLabel("Players:"));
+        setup.add(players);
+        setup.add(new JLabel("Rounds:"));
+        setup.add(rounds);
+        if (JOptionPane.showConfirmDialog(this, setup, "Tournament", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        int count = (Integer) players.getValue();
+        showCategorySelection(count, count * (Integer) rounds.getValue());
+    }
+
+    private void startGame(String category) {
+        QuestionBank bank = questionBank.join();
+        gameBank = bank;
+        Long fixedSeed = Long.getLong("quiz.seed");
+        currentCategory = category;
+        gameSeed = fixedSeed != null ? fixedSeed : ThreadLocalRandom.current().nextLong();
+        // A game longer than the category repeats questions, which the adaptive selector does not
+        if (ADAPTIVE && fixedSeed == null && gameLength <= bank.size(category)) {
+            if (questionStats == null) {
+                questionStats = new QuestionStats(bank.getQuestionCount());
+            }
+            selector = selectors.get(category);
+            if (selector == null || !selector.matches(bank.getFirstId(category), bank.size(category))) {
+                selector = new AdaptiveSelector(questionStats, bank.getFirstId(category), bank.size(category));
+                selectors.put(category, selector);
+            }
+            startGame(selector.startGame(gameLength, playerCount, this::loadQuestion));
+            return;
+        }
+        selector = null;
+        int[] picks = samplers.computeIfAbsent(category, c -> new QuestionSampler())
+                .drawRepeating(bank.size(category), gameLength, gameSeed);
+        startGame(bank.load(category, picks));
+    }
+
+    /**
+     * Asks for a search query and plays a random selection of the matching
+     * questions once the search index is built.
+     */
+    private void startCustomGame() {
+        String query = JOptionPane.showInputDialog(this,
+                "Keywords to match (OR between alternatives, tag:name for a tag or category):",
+                "Custom Quiz", JOptionPane.PLAIN_MESSAGE);
+        if (query == null || query.trim().isEmpty()) {
+            return;
+        }
+        studyStarting = false;
+        customQuery = query;
+        searchIndex.thenAcceptAsync(index -> {
+            // Another game or a newer query came in while the index was built
+            if (query == customQuery) {
+                customQuery = null;
+                playCustom(index, query);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    private void playCustom(SearchIndex index, String query) {
+        int[] ids = index.search(query);
+        if (ids.length == 0) {
+            JOptionPane.showMessageDialog(this, "No questions match \"" + query.trim() + "\".",
+                    "Custom Quiz", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        Long fixedSeed = Long.getLong("quiz.seed");
+        gameBank = index.getBank();
+        currentCategory = CUSTOM_CATEGORY;
+        gameSeed = fixedSeed != null ? fixedSeed : ThreadLocalRandom.current().nextLong();
+        selector = null;
+        int[] picks = new QuestionSampler(0).drawRepeating(ids.length, gameLength, gameSeed);
+        List<Question> questions = new ArrayList<>(picks.length);
+        for (int pick : picks) {
+            questions.add(gameBank.get(ids[pick]));
+        }
+        startGame(questions);
+    }
+
+    /**
+     * Plays the cards of the study deck that are due, most overdue first, once
+     * the deck is open and the card keys of the bank are built.
+     */
+    private void startStudy() {
+        if (studyStarting) {
+            return;
+        }
+        studyStarting = true;
+        customQuery = null;
+        if (studyKeysSource != questionBank) {
+            studyKeysSource = questionBank;
+            studyKeys = questionBank.thenApplyAsync(StudyDeck.Keys::new);
+        }
+        studyDeck.thenCombineAsync(studyKeys, EnhancedQuizGameGUI::pickStudy, deckWriter)
+                .thenAcceptAsync(pick -> {
+                    // Another game started while the keys were built
+                    if (studyStarting) {
+                        studyStarting = false;
+                        playStudy(pick);
+                    }
+                }, SwingUtilities::invokeLater);
+    }
+
+    private static final class StudyPick {
+        final QuestionBank bank;
+        final List<Question> questions;
+        final long nextDue;
+
+        StudyPick(QuestionBank bank, List<Question> questions, long nextDue) {
+            this.bank = bank;
+            this.questions = questions;
+            this.nextDue = nextDue;
+        }
+    }
+
+    /**
+     * Takes the due cards off the deck on the deck thread, dropping those whose
+     * question is no longer in the bank. Null when the deck could not be opened.
+     */
+    private static StudyPick pickStudy(StudyDeck deck, StudyDeck.Keys keys) {
+        if (deck == null) {
+            return null;
+        }
+        QuestionBank bank = keys.getBank();
+        List<Question> questions = new ArrayList<>(QUESTIONS_PER_GAME);
+        for (long key : deck.due(System.currentTimeMillis(), QUESTIONS_PER_GAME)) {
+            int id = keys.find(key);
+            if (id >= 0) {
+                questions.add(bank.get(id));
+            } else {
+                deck.remove(key);
+            }
+        }
+        return new StudyPick(bank, questions, deck.getNextDue());
+    }
+
+    private void playStudy(StudyPick pick) {
+        if (pick == null) {
+            JOptionPane.showMessageDialog(this, "The study deck could not be opened.", "Study", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        List<Question> questions = pick.questions;
+        if (questions.isEmpty()) {
+            long next = pick.nextDue;
+            String message = next == Long.MAX_VALUE
+                    ? "Nothing to study yet. Questions you miss in one player games come back here."
+                    : "Nothing is due. The next review is in " + formatDelay(next - System.currentTimeMillis()) + ".";
+            JOptionPane.showMessageDialog(this, message, "Study", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        ensureGamePanels();
+        playerCount = 1;
+        gameLength = questions.size();
+        gameBank = pick.bank;
+        currentCategory = STUDY_CATEGORY;
+        gameSeed = 0;
+        selector = null;
+        startGame(questions);
+    }
+
+    private static String formatDelay(long millis) {
+        long minutes = Math.max(1, (millis + 59_999) / 60_000);
+        if (minutes < 60) {
+            return minutes + (minutes == 1 ? " minute" : " minutes");
+        }
+        long hours = (minutes + 59) / 60;
+        if (hours < 48) {
+            return hours + (hours == 1 ? " hour" : " hours");
+        }
+        return (hours + 23) / 24 + " days";
+    }
+
+    /**
+     * Schedules the current question in the study deck after a one player answer or timeout.
+     */
+    private void reviewCard(boolean correct) {
+        if (engine.getPlayerCount() != 1) {
+            return;
+        }
+        Question question = engine.getCurrentQuestion();
+        long key = StudyDeck.key(gameBank.getCategory(question.getId()), question.getQuestionText());
+        long now = System.currentTimeMillis();
+        studyDeck.thenAcceptAsync(deck -> {
+            if (deck != null) {
+                try {
+                    deck.review(key, correct, now);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, deckWriter);
+    }
+
+    private Question loadQuestion(int position) {
+        return gameBank.load(currentCategory, new int[]{position}).get(0);
+    }
+
+    private void startGame(List<Question> questions) {
+        studyStarting = false;
+        customQuery = null;
+        engine.start(questions, playerCount);
+        recorder = RECORD_FILE == null ? null : new SessionRecording.Recorder(currentCategory, playerCount, gameBank);
+        prepareUpcoming(questions, 0, IMAGE_PREFETCH_COUNT);
+        showNextQuestion();
+        cardLayout.show(cardPanel, "game");
+    }
+
+    private void showNextQuestion() {
+        Question question = engine.getCurrentQuestion();
+        if (question != null) {
+            long start = System.nanoTime();
+            clock.cancel(prerenderTask);
+            if (nextCard.question != question || !nextCard.hasSnapshot()) {
+                // Nothing was prepared (first question) or the next question changed since
+                nextCard.fill(question);
+                nextCard.setBounds(card.getBounds());
+                nextCard.prerender();
+            }
+            QuestionCard shown = nextCard;
+            nextCard = card;
+            card = shown;
+            card.setFadeStep(0);
+            deckLayout.show(questionDeck, card.getName());
+            QuizMetrics.get().cardSwap.record(QuizMetrics.micros(start));
+
+            prepareUpcoming(engine.getQuestions(), engine.getQuestionIndex() + 1, IMAGE_PREFETCH_COUNT);
+            currentDescriptor = question.getRenderDescriptor();
+            selectedMask = 0;
+            orderCount = 0;
+
+            updateTimerLabel();
+            // Also names the player whose turn it is
+            updateScoreLabel();
+            clock.scheduleAtFixedRate(countdownTask, 1000, 1000);
+            clock.scheduleAtFixedRate(fadeTask, 50, 50);
+        } else {
+            endGame();
+        }
+    }
+
+    /**
+     * Fills the hidden card with the upcoming question and renders it off-screen
+     * while the feedback for the current one shows.
+     */
+    private void prerenderNextQuestion() {
+        int next = engine.getQuestionIndex() + 1;
+        if (next >= engine.getQuestionCount()) {
+            return;
+        }
+        nextCard.fill(engine.getQuestions().get(next));
+        nextCard.setBounds(card.getBounds());
+        nextCard.prerender();
+    }
+
+    private void advanceQuestion() {
+        if (recorder != null) {
+            recorder.next();
+        }
+        engine.nextQuestion();
+        showNextQuestion();
+    }
+
+    private void fadeStep() {
+        int step = card.getFadeStep() + 1;
+        if (step >= FadePanel.STEPS) {
+            clock.cancel(fadeTask);
+        }
+        card.setFadeStep(step);
+    }
+
+    private void selectOption(int index) {
+        switch (currentDescriptor.getKind()) {
+            case CHOICE:
+                checkAnswer(index);
+                break;
+            case MULTI_SELECT:
+                selectedMask ^= 1L << index;
+                card.answerButtons[index].setBorder((selectedMask & (1L << index)) != 0 ? SELECTED_BUTTON_BORDER : BUTTON_BORDER);
+                break;
+            case ORDERING:
+                for (int i = 0; i < orderCount; i++) {
+                    if (selectedOrder[i] == index) {
+                        return;
+                    }
+                }
+                selectedOrder[orderCount++] = index;
+                card.answerButtons[index].setText(orderCount + ". " + currentDescriptor.getLabel(index));
+                card.answerButtons[index].setBorder(SELECTED_BUTTON_BORDER);
+                if (orderCount == currentDescriptor.getLabelCount()) {
+                    checkAnswer(OrderingQuestion.encode(Arrays.copyOf(selectedOrder, orderCount)));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void submitInput() {
+        if (currentDescriptor.getKind() == RenderDescriptor.InputKind.MULTI_SELECT) {
+            checkAnswer(selectedMask);
+        } else if (currentDescriptor.getKind() == RenderDescriptor.InputKind.NUMERIC) {
+            try {
+                checkAnswer(currentDescriptor.parseAnswer(card.numericField.getText()));
+            } catch (NumberFormatException e) {
+                card.numericField.selectAll();
+                card.numericField.requestFocusInWindow();
+            }
+        }
+    }
+
+    private void checkAnswer(long answer) {
+        // The engine ignores clicks while the answer feedback is showing
+        QuizEngine.Outcome outcome = engine.submitAnswer(answer);
+        if (outcome == null) {
+            return;
+        }
+        if (recorder != null) {
+            recorder.answer(answer);
+        }
+        clock.cancel(countdownTask);
+        int index = engine.getQuestionIndex();
+        QuizMetrics.get().recordAnswer(currentCategory, engine.getCurrentQuestion().getId(), engine.getLatencyMicros(index));
+        reviewCard(outcome == QuizEngine.Outcome.CORRECT);
+        adaptNextQuestion();
+
+        if (outcome == QuizEngine.Outcome.CORRECT) {
+            updateScoreLabel();
+            showFeedback("Correct!", Color.GREEN);
+        } else {
+            showFeedback("Incorrect!", Color.RED);
+        }
+
+        clock.schedule(prerenderTask, PRERENDER_DELAY);
+        clock.schedule(transitionTask, TRANSITION_DELAY);
+    }
+
+    /**
+     * Lets the adaptive selector replace the next question while the feedback shows.
+     */
+    private void adaptNextQuestion() {
+        if (selector == null) {
+            return;
+        }
+        selector.afterAnswer(engine, this::loadQuestion);
+        prepareUpcoming(engine.getQuestions(), engine.getQuestionIndex() + 1, 1);
+    }
+
+    /**
+     * Decodes the images, warms the glyphs and wraps the text of upcoming questions in the background.
+     */
+    private void prepareUpcoming(List<Question> questions, int from, int count) {
+        imageCache.prefetch(questions, from, count, IMAGE_WIDTH, IMAGE_HEIGHT);
+        fonts.prewarm(questions, from, count, card.questionLabel.getFont(), card.answerButtons[0].getFont());
+        textLayouts.prefetch(questions, from, count, card.questionLabel.getFont(), QUESTION_WRAP_WIDTH);
+    }
+
+    private void showFeedback(String message, Color color) {
+        card.feedbackLabel.setText(message);
+        card.feedbackLabel.setForeground(color);
+        clock.schedule(feedbackRemovalTask, TRANSITION_DELAY);
+    }
+
+    private void removeFeedback() {
+        card.feedbackLabel.setText("");
+    }
+
+    private void updateTimer() {
+        if (recorder != null && engine.isAwaitingAnswer()) {
+            recorder.tick();
+        }
+        QuizEngine.Outcome outcome = engine.tick();
+        updateTimerLabel();
+        if (outcome == QuizEngine.Outcome.TIMEOUT) {
+            clock.cancel(countdownTask);
+            QuizMetrics.get().recordTimeout();
+            reviewCard(false);
+            adaptNextQuestion();
+            showFeedback("Time's up!", Color.ORANGE);
+            clock.schedule(prerenderTask, PRERENDER_DELAY);
+            clock.schedule(transitionTask, TRANSITION_DELAY);
+        }
+    }
+
+    private void updateTimerLabel() {
+        timerLabel.setText("Time: " + engine.getTimeLeft());
+    }
+
+    /**
+     * Shows the score of the player whose turn it is and, with several players,
+     * their place and the leader, all read from the engine's ranking.
+     */
+    private void updateScoreLabel() {
+        RankIndex ranking = engine.getRanking();
+        if (ranking.size() == 1) {
+            scoreLabel.setText("Score: " + ranking.getScore(0));
+            return;
+        }
+        int player = engine.isOver() ? 0 : engine.getCurrentPlayer();
+        int leader = ranking.top(1)[0];
+        scoreLabel.setText(String.format("P%d: %d (#%d of %d) | Leader: P%d %d", player + 1, ranking.getScore(player),
+                ranking.getRank(player), ranking.size(), leader + 1, ranking.getScore(leader)));
+    }
+
+    /**
+     * The winner and the top of the final ranking; places are shared on equal scores.
+     */
+    private static String standings(RankIndex ranking) {
+        int[] top = ranking.top(STANDINGS_LINES);
+        int leaders = ranking.countAbove(ranking.scoreAt(1) - 1);
+        StringBuilder text = new StringBuilder();
+        if (leaders == 1) {
+            text.append("Player ").append(top[0] + 1).append(" wins!");
+        } else if (leaders == ranking.size() && leaders == 2) {
+            text.append("It's a tie!");
+        } else {
+            text.append(leaders).append(" players share first place!");
+        }
+        for (int player : top) {
+            text.append("\n").append(ranking.getRank(player)).append(". Player ").append(player + 1)
+                    .append(": ").append(ranking.getScore(player));
+        }
+        if (ranking.size() > top.length) {
+            text.append("\n... and ").append(ranking.size() - top.length).append(" more");
+        }
+        return text.toString();
+    }
+
+    private void endGame() {
+        // Drop every pending countdown, fade and transition so none fires after the game
+        clock.cancelAll();
+        removeFeedback();
+        card.setFadeStep(FadePanel.STEPS);
+        setDebugOverlayVisible(debugLabel.isVisible());
+        RankIndex ranking = engine.getRanking();
+        String message;
+        if (ranking.size() > 1) {
+            message = standings(ranking);
+        } else {
+            message = "Game Over!\nYour score: " + ranking.getScore(0) + "/" + engine.getQuestionCount();
+        }
+
+        if (selector != null) {
+            selector.finishGame(engine.getQuestions());
+        }
+        // Study games repeat missed questions, so their scores do not belong in the history
+        boolean scored = !STUDY_CATEGORY.equals(currentCategory);
+        ScoreStore store = scored ? scoreStore.getNow(null) : null;
+        if (recorder != null) {
+            SessionRecording recording = recorder.finish(engine);
+            recorder = null;
+            CompletableFuture.runAsync(() -> {
+                try {
+                    SessionRecording.append(Paths.get(RECORD_FILE), recording);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+        if (scored) {
+            SessionRecord session = SessionRecord.of(engine, currentCategory, gameSeed);
+            scoreStore.thenAccept(s -> {
+                if (s != null) {
+                    s.append(session);
+                }
+            });
+        }
+        if (store != null) {
+            // The leaderboard already includes this game; only the file write is deferred
+            StringBuilder best = new StringBuilder("\n\nBest scores in " + currentCategory + ":");
+            List<Leaderboard.Entry> top = store.getLeaderboard().top(currentCategory);
+            for (int i = 0; i < Math.min(LEADERBOARD_LINES, top.size()); i++) {
+                Leaderboard.Entry entry = top.get(i);
+                best.append("\n").append(i + 1).append(". ").append(entry.score).append("/")
+                        .append(entry.session.getQuestionCount())
+                        .append(entry.session.players > 1 ? " (Player " + (entry.player + 1) + ")" : "");
+            }
+            message += best;
+        }
+        JOptionPane.showMessageDialog(this, message, "Game Over", JOptionPane.INFORMATION_MESSAGE);
+        cardLayout.show(cardPanel, "menu");
+    }
+
+    public static void main(String[] args) {
+        StartupMetrics.mainStarted();
+        QuizMetrics.get().startEdtLagProbe();
+        SwingUtilities.invokeLater(() -> {
+            EnhancedQuizGameGUI game = new EnhancedQuizGameGUI();
+            game.setVisible(true);
+        });
+    }
+}
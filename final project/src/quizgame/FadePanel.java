@@ -0,0 +1,177 @@
+package quizgame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * Panel whose whole subtree is painted through a precomputed AlphaComposite,
+ * so fading it in only changes an index and repaints the panel's own bounds.
+ * The panel is not opaque; its parent must paint the background.
+ *
+ * {@link #prerender()} paints the subtree once into an off-screen image,
+ * accelerated when the screen supports it. While a fade runs after that, every
+ * frame is a single composited image copy instead of a walk over the
+ * components; once the panel is fully shown it paints live again.
+ */
+class FadePanel extends JPanel {
+    static final int STEPS = 10;
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[STEPS + 1];
+
+    static {
+        for (int i = 0; i <= STEPS; i++) {
+            COMPOSITES[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) i / STEPS);
+        }
+    }
+
+    private int step = STEPS;
+    private FrameStats frameStats;
+    private Image snapshot;
+    private boolean snapshotValid;
+    private final Rectangle snapshotBounds = new Rectangle();
+
+    FadePanel() {
+        setOpaque(false);
+    }
+
+    void setFrameStats(FrameStats frameStats) {
+        this.frameStats = frameStats;
+    }
+
+    int getFadeStep() {
+        return step;
+    }
+
+    void setFadeStep(int newStep) {
+        newStep = Math.max(0, Math.min(STEPS, newStep));
+        if (newStep != step) {
+            step = newStep;
+            if (step == STEPS) {
+                snapshotValid = false;
+            }
+            repaint();
+        }
+    }
+
+    /**
+     * Lays out the subtree at the panel's current size and renders it off-screen.
+     * Call it after the contents are final; any later change needs another call.
+     */
+    void prerender() {
+        snapshotValid = false;
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        if (isDisplayable()) {
+            validate();
+        } else {
+            layoutTree(this);
+        }
+        // Only the area the visible children cover; the rest of the panel is transparent
+        Rectangle content = null;
+        for (Component child : getComponents()) {
+            if (child.isVisible()) {
+                content = content == null ? child.getBounds() : content.union(child.getBounds());
+            }
+        }
+        if (content == null) {
+            return;
+        }
+        snapshotBounds.setBounds(content.intersection(new Rectangle(getWidth(), getHeight())));
+        int w = snapshotBounds.width;
+        int h = snapshotBounds.height;
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) {
+            if (!(snapshot instanceof BufferedImage) || snapshot.getWidth(null) != w || snapshot.getHeight(null) != h) {
+                snapshot = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            }
+            renderInto((Graphics2D) snapshot.getGraphics(), w, h);
+            snapshotValid = true;
+            return;
+        }
+        if (!(snapshot instanceof VolatileImage) || snapshot.getWidth(null) != w || snapshot.getHeight(null) != h) {
+            snapshot = gc.createCompatibleVolatileImage(w, h, Transparency.TRANSLUCENT);
+        }
+        VolatileImage image = (VolatileImage) snapshot;
+        do {
+            if (image.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                image = gc.createCompatibleVolatileImage(w, h, Transparency.TRANSLUCENT);
+                snapshot = image;
+            }
+            renderInto(image.createGraphics(), w, h);
+        } while (image.contentsLost());
+        snapshotValid = true;
+    }
+
+    private static void layoutTree(Container container) {
+        container.doLayout();
+        for (Component child : container.getComponents()) {
+            if (child instanceof Container) {
+                layoutTree((Container) child);
+            }
+        }
+    }
+
+    boolean hasSnapshot() {
+        return snapshotValid;
+    }
+
+    private void renderInto(Graphics2D g, int w, int h) {
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, w, h);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.translate(-snapshotBounds.x, -snapshotBounds.y);
+            super.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        long start = System.nanoTime();
+        if (step == STEPS) {
+            super.paint(g);
+        } else if (step > 0) {
+            Graphics2D g2d = (Graphics2D) g;
+            Composite previous = g2d.getComposite();
+            g2d.setComposite(COMPOSITES[step]);
+            if (!drawSnapshot(g2d)) {
+                super.paint(g2d);
+            }
+            g2d.setComposite(previous);
+        }
+        if (frameStats != null) {
+            frameStats.recordFrame(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Draws the off-screen rendering if it is still intact; a lost accelerated
+     * image makes the panel paint live for the rest of the fade.
+     */
+    private boolean drawSnapshot(Graphics2D g) {
+        if (!snapshotValid) {
+            return false;
+        }
+        if (snapshot instanceof VolatileImage) {
+            VolatileImage image = (VolatileImage) snapshot;
+            if (image.validate(getGraphicsConfiguration()) != VolatileImage.IMAGE_OK) {
+                snapshotValid = false;
+                return false;
+            }
+            g.drawImage(image, snapshotBounds.x, snapshotBounds.y, null);
+            if (image.contentsLost()) {
+                snapshotValid = false;
+            }
+            return true;
+        }
+        g.drawImage(snapshot, snapshotBounds.x, snapshotBounds.y, null);
+        return true;
+    }
+}
@@ -0,0 +1,127 @@
+package quizgame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the bundled Roboto family and hands out derived fonts. Each weight is
+ * read from its TTF the first time it is asked for, and every (weight, style,
+ * size) variant is derived once and shared, so building buttons and labels does
+ * not create new Font instances.
+ *
+ * {@link #prewarm} draws upcoming texts into a scratch image on a background
+ * thread. That fills the Java2D glyph cache for those fonts, so the first paint
+ * of a question does not have to rasterize its glyphs on the EDT.
+ */
+class FontManager {
+    enum Weight {
+        THIN("Thin"), LIGHT("Light"), REGULAR("Regular"), MEDIUM("Medium"), BOLD("Bold"), BLACK("Black");
+
+        final String fileSuffix;
+
+        Weight(String fileSuffix) {
+            this.fileSuffix = fileSuffix;
+        }
+    }
+
+    private static final int MAX_WARMED_TEXTS = 4096;
+
+    private final String resourcePrefix;
+    private final Font[] baseFonts = new Font[Weight.values().length];
+    private final Map<Long, Font> derived = new ConcurrentHashMap<>();
+    private final Set<String> warmed = ConcurrentHashMap.newKeySet();
+    private final ExecutorService warmer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "glyph-prewarm");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    /**
+     * @param resourcePrefix classpath prefix of the font files, e.g. "/Roboto/Roboto-"
+     */
+    FontManager(String resourcePrefix) {
+        this.resourcePrefix = resourcePrefix;
+    }
+
+    Font get(Weight weight, int style, float size) {
+        long key = ((long) weight.ordinal() << 40) | ((long) style << 32) | (Float.floatToIntBits(size) & 0xFFFFFFFFL);
+        Font font = derived.get(key);
+        if (font == null) {
+            font = derived.computeIfAbsent(key, k -> base(weight).deriveFont(style, size));
+        }
+        return font;
+    }
+
+    /**
+     * Renders the texts of the given questions and their answer labels with the
+     * given fonts in the background. Texts that were already warmed are skipped.
+     */
+    void prewarm(List<Question> questions, int from, int count, Font questionFont, Font labelFont) {
+        int end = Math.min(questions.size(), from + count);
+        for (int i = Math.max(0, from); i < end; i++) {
+            Question question = questions.get(i);
+            warm(question.getQuestionText(), questionFont);
+            RenderDescriptor descriptor = question.getRenderDescriptor();
+            for (int j = 0; j < descriptor.getLabelCount(); j++) {
+                warm(descriptor.getLabel(j), labelFont);
+            }
+        }
+    }
+
+    private void warm(String text, Font font) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        if (warmed.size() > MAX_WARMED_TEXTS) {
+            warmed.clear();
+        }
+        if (!warmed.add(font.getSize2D() + ":" + font.getStyle() + ":" + font.getFontName() + ":" + text)) {
+            return;
+        }
+        warmer.execute(() -> {
+            Graphics2D g = scratch.createGraphics();
+            try {
+                // Use the same text hints Swing paints with so the cached strikes match
+                Object hints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+                if (hints instanceof Map) {
+                    g.addRenderingHints((Map<?, ?>) hints);
+                }
+                g.setFont(font);
+                g.drawString(text, 0, 0);
+            } finally {
+                g.dispose();
+            }
+        });
+    }
+
+    private Font base(Weight weight) {
+        synchronized (baseFonts) {
+            Font font = baseFonts[weight.ordinal()];
+            if (font == null) {
+                font = load(weight);
+                baseFonts[weight.ordinal()] = font;
+            }
+            return font;
+        }
+    }
+
+    private Font load(Weight weight) {
+        try (InputStream in = getClass().getResourceAsStream(resourcePrefix + weight.fileSuffix + ".ttf")) {
+            Font font = Font.createFont(Font.TRUETYPE_FONT, in);
+            GraphicsEnvironment.getLocalGraphicsEnvironment().registerFont(font);
+            return font;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new Font("Arial", Font.PLAIN, 16);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package quizgame;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Frame time and allocation rate counters for the debug overlay. Frames are
+ * recorded by the painting code; allocation is sampled from the calling thread,
+ * which is expected to be the EDT.
+ */
+final class FrameStats {
+    private long frames;
+    private long totalFrameNanos;
+    private long maxFrameNanos;
+    private long windowStart = System.nanoTime();
+    private long allocatedAtWindowStart = allocatedBytes();
+
+    void recordFrame(long nanos) {
+        frames++;
+        totalFrameNanos += nanos;
+        if (nanos > maxFrameNanos) {
+            maxFrameNanos = nanos;
+        }
+    }
+
+    /**
+     * Summarizes the window since the previous call and starts a new one.
+     */
+    String sample() {
+        long now = System.nanoTime();
+        long allocated = allocatedBytes();
+        double seconds = Math.max(1e-9, (now - windowStart) / 1e9);
+        String summary = String.format("%d frames, avg %.2f ms, max %.2f ms, EDT alloc %s",
+                frames,
+                frames == 0 ? 0.0 : totalFrameNanos / 1e6 / frames,
+                maxFrameNanos / 1e6,
+                allocated < 0 ? "n/a" : String.format("%.1f KB/s", (allocated - allocatedAtWindowStart) / 1024.0 / seconds));
+        frames = 0;
+        totalFrameNanos = 0;
+        maxFrameNanos = 0;
+        windowStart = now;
+        allocatedAtWindowStart = allocated;
+        return summary;
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
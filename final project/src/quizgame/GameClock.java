@@ -0,0 +1,210 @@
+package quizgame;
+
+import java.util.Arrays;
+
+/**
+ * Single tick source for all game timing.
+ *
+ * Tasks are created once and rescheduled as often as needed. They sit in a binary
+ * heap ordered by their nanosecond deadline, so scheduling and cancelling are
+ * O(log n) and a running game allocates nothing on the clock's side. The clock
+ * itself is passive: {@link #tick(long)} runs everything that is due, and
+ * {@link #swing(int)} returns a clock that is ticked on the EDT by one shared
+ * one-shot javax.swing.Timer, armed for the earliest deadline and re-armed after
+ * every tick, so an idle or waiting game does not wake the EDT in between.
+ */
+class GameClock {
+    static final class Task {
+        private final Runnable action;
+        private long deadline;
+        private long period;
+        private int heapIndex = -1;
+        private long generation;
+
+        Task(Runnable action) {
+            this.action = action;
+        }
+
+        boolean isScheduled() {
+            return heapIndex >= 0;
+        }
+    }
+
+    private Task[] heap = new Task[16];
+    private int size;
+    private Task[] due = new Task[16];
+    private long[] dueGenerations = new long[16];
+    private javax.swing.Timer ticker;
+    private long resolution;
+
+    /**
+     * Returns a clock driven on the EDT. Wakeups are rounded up to the given
+     * resolution, so deadlines that close together share one.
+     */
+    static GameClock swing(int resolutionMillis) {
+        GameClock clock = new GameClock();
+        clock.resolution = Math.max(1, resolutionMillis);
+        clock.ticker = new javax.swing.Timer(0, e -> clock.tick(System.nanoTime()));
+        clock.ticker.setRepeats(false);
+        return clock;
+    }
+
+    void schedule(Task task, long delayMillis) {
+        scheduleAtFixedRate(task, delayMillis, 0);
+    }
+
+    synchronized void scheduleAtFixedRate(Task task, long delayMillis, long periodMillis) {
+        removeFromHeap(task);
+        task.generation++;
+        task.deadline = System.nanoTime() + delayMillis * 1_000_000L;
+        task.period = periodMillis * 1_000_000L;
+        insert(task);
+        if (task.heapIndex == 0) {
+            arm();
+        }
+    }
+
+    synchronized boolean cancel(Task task) {
+        task.generation++;
+        return removeFromHeap(task);
+    }
+
+    synchronized void cancelAll() {
+        for (int i = 0; i < size; i++) {
+            heap[i].generation++;
+            heap[i].heapIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+        if (ticker != null) {
+            ticker.stop();
+        }
+    }
+
+    synchronized int pending() {
+        return size;
+    }
+
+    /**
+     * Runs every task whose deadline is at or before now. Periodic tasks are
+     * rescheduled before they run, so they may cancel themselves.
+     */
+    void tick(long now) {
+        int count = 0;
+        synchronized (this) {
+            while (size > 0 && heap[0].deadline - now <= 0) {
+                Task task = heap[0];
+                removeAt(0);
+                if (task.period > 0) {
+                    task.deadline += task.period;
+                    if (task.deadline - now <= 0) {
+                        task.deadline = now + task.period;
+                    }
+                    insert(task);
+                }
+                if (count == due.length) {
+                    due = Arrays.copyOf(due, count * 2);
+                    dueGenerations = Arrays.copyOf(dueGenerations, count * 2);
+                }
+                due[count] = task;
+                dueGenerations[count] = task.generation;
+                count++;
+            }
+            arm();
+        }
+        for (int i = 0; i < count; i++) {
+            Task task = due[i];
+            due[i] = null;
+            // Skip tasks cancelled or rescheduled by an earlier task in this tick
+            if (task.generation == dueGenerations[i]) {
+                task.action.run();
+            }
+        }
+    }
+
+    /**
+     * Points the timer at the earliest deadline. Cancelling the earliest task
+     * leaves the timer alone; it then fires early, finds nothing due and re-arms.
+     */
+    private void arm() {
+        if (ticker == null) {
+            return;
+        }
+        if (size == 0) {
+            ticker.stop();
+            return;
+        }
+        long remaining = Math.max(0, heap[0].deadline - System.nanoTime());
+        long millis = (remaining + 999_999) / 1_000_000;
+        long delay = (millis + resolution - 1) / resolution * resolution;
+        ticker.setInitialDelay((int) Math.min(Integer.MAX_VALUE, delay));
+        ticker.restart();
+    }
+
+    private void insert(Task task) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        task.heapIndex = size;
+        heap[size++] = task;
+        siftUp(task.heapIndex);
+    }
+
+    private boolean removeFromHeap(Task task) {
+        if (task.heapIndex < 0) {
+            return false;
+        }
+        removeAt(task.heapIndex);
+        return true;
+    }
+
+    private void removeAt(int index) {
+        Task removed = heap[index];
+        removed.heapIndex = -1;
+        size--;
+        if (index != size) {
+            heap[index] = heap[size];
+            heap[index].heapIndex = index;
+            heap[size] = null;
+            siftDown(index);
+            siftUp(index);
+        } else {
+            heap[size] = null;
+        }
+    }
+
+    private void siftUp(int index) {
+        Task task = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].deadline - task.deadline <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].heapIndex = index;
+            index = parent;
+        }
+        heap[index] = task;
+        task.heapIndex = index;
+    }
+
+    private void siftDown(int index) {
+        Task task = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].deadline - heap[child].deadline < 0) {
+                child = right;
+            }
+            if (task.deadline - heap[child].deadline <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].heapIndex = index;
+            index = child;
+        }
+        heap[index] = task;
+        task.heapIndex = index;
+    }
+}
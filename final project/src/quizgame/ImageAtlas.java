@@ -0,0 +1,154 @@
+package quizgame;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Question images and icons pre-scaled to their display size by
+ * {@link AtlasBuilder}. Each image is stored compressed, so the pack file is
+ * about as small as the sources. It is memory mapped when it lives on disk and
+ * read in one go from a jar. An image is decoded from its own region only when
+ * it is asked for, and it never has to be scaled.
+ */
+final class ImageAtlas {
+    static final String INDEX_RESOURCE = "/atlas/atlas.idx";
+    static final String PACK_RESOURCE = "/atlas/atlas.bin";
+    static final int MAGIC = 0x51415431; // "QAT1"
+    static final int VERSION = 3;
+
+    private final Map<String, long[]> entries;
+    private final Map<String, Long> contentHashes;
+    private final ByteBuffer pack;
+
+    private ImageAtlas(Map<String, long[]> entries, Map<String, Long> contentHashes, ByteBuffer pack) {
+        this.entries = entries;
+        this.contentHashes = contentHashes;
+        this.pack = pack;
+    }
+
+    /**
+     * Opens the atlas built into the classpath, or returns null if there is none.
+     */
+    static ImageAtlas open() {
+        URL indexUrl = ImageAtlas.class.getResource(INDEX_RESOURCE);
+        URL packUrl = ImageAtlas.class.getResource(PACK_RESOURCE);
+        if (indexUrl == null || packUrl == null) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(indexUrl.openStream()))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            Map<String, long[]> entries = new HashMap<>(count * 2);
+            Map<String, Long> contentHashes = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                int width = in.readShort();
+                int height = in.readShort();
+                long contentHash = in.readLong();
+                long offset = in.readLong();
+                int length = in.readInt();
+                entries.put(path + '@' + width + 'x' + height, new long[]{offset, length, width, height});
+                contentHashes.put(path, contentHash);
+            }
+            return new ImageAtlas(entries, contentHashes, readPack(packUrl));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static ByteBuffer readPack(URL url) throws Exception {
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        try (InputStream in = url.openStream()) {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
+
+    /**
+     * Returns the packed image for the resource path at exactly this size, or null.
+     */
+    BufferedImage get(String path, int width, int height) {
+        long[] entry = entries.get(path + '@' + width + 'x' + height);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer region = pack.duplicate().position((int) entry[0]).limit((int) (entry[0] + entry[1]));
+        BufferedImage decoded;
+        try {
+            // A memory cache keeps ImageIO from spilling the stream to a temporary file
+            decoded = ImageIO.read(new MemoryCacheImageInputStream(new ByteBufferInputStream(region)));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (decoded == null) {
+            return null;
+        }
+        // The decoders return byte rasters, which Java2D draws more slowly than int ones
+        int type = decoded.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (decoded.getType() == type) {
+            return decoded;
+        }
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        g.drawImage(decoded, 0, 0, null);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Returns the {@link ResourceResolver#contentHash} of the packed source file, or 0 if it is not packed.
+     */
+    long contentHash(String path) {
+        Long hash = contentHashes.get(path);
+        return hash == null ? 0 : hash;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package quizgame;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decodes and scales image resources off the EDT and keeps the scaled results
+ * in an LRU cache bounded by the number of pixel bytes it holds. Images that the
+ * build packed into the {@link ImageAtlas} at the requested size are sliced from
+ * it instead of being decoded. Paths go through a {@link ResourceResolver}, so
+ * identical files share one entry and empty or missing paths cost nothing.
+ */
+class ImageCache {
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ExecutorService loader;
+    private final CompletableFuture<ResourceResolver> resolver;
+    private long usedBytes;
+
+    ImageCache(long maxBytes, int threads) {
+        this.maxBytes = maxBytes;
+        this.loader = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "image-loader");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        this.resolver = CompletableFuture.supplyAsync(() -> new ResourceResolver(ImageAtlas.open()), loader);
+    }
+
+    /**
+     * Returns the scaled image without waiting for the atlas, the path lookup or
+     * the decode, so it is safe to call on the EDT. The future is already done when
+     * the image was prefetched, and completes with null when the path is empty or
+     * the image cannot be loaded.
+     */
+    CompletableFuture<ImageIcon> getAsync(String path, int width, int height) {
+        if (path == null || path.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ResourceResolver resolved = resolver.getNow(null);
+        ImageHandle handle = resolved == null ? null : resolved.peek(path);
+        if (handle != null) {
+            return request(handle, width, height);
+        }
+        // The first lookup of a path may read the resource to hash it, so it runs on the loader
+        return resolver.thenApplyAsync(r -> r.resolve(path), loader)
+                .thenCompose(h -> request(h, width, height));
+    }
+
+    /**
+     * Resolves the image paths ahead of use, see {@link ResourceResolver#validate}.
+     * Blocks until the atlas is open, so call it off the EDT.
+     */
+    int validate(Collection<String> paths) {
+        return resolver.join().validate(paths);
+    }
+
+    void prefetch(String path, int width, int height) {
+        getAsync(path, width, height);
+    }
+
+    void prefetch(List<Question> questions, int from, int count, int width, int height) {
+        int end = Math.min(questions.size(), from + count);
+        for (int i = Math.max(0, from); i < end; i++) {
+            prefetch(questions.get(i).getImagePath(), width, height);
+        }
+    }
+
+    private CompletableFuture<ImageIcon> request(ImageHandle handle, int width, int height) {
+        if (handle.isNone()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String key = Long.toHexString(handle.contentHash) + '@' + width + 'x' + height;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(CompletableFuture.supplyAsync(() -> load(handle, width, height), loader),
+                        (long) width * height * 4);
+                entries.put(key, entry);
+                usedBytes += entry.bytes;
+                evict();
+            }
+            return entry.future;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest.future.isDone()) {
+                usedBytes -= eldest.bytes;
+                it.remove();
+            }
+        }
+    }
+
+    private ImageIcon load(ImageHandle handle, int width, int height) {
+        try {
+            ImageAtlas packed = resolver.join().getAtlas();
+            if (packed != null) {
+                long start = System.nanoTime();
+                BufferedImage image = packed.get(handle.path, width, height);
+                if (image != null) {
+                    QuizMetrics.get().imageLoad.record(QuizMetrics.micros(start));
+                    return new ImageIcon(image);
+                }
+            }
+            long start = System.nanoTime();
+            BufferedImage source = ImageIO.read(handle.url);
+            if (source == null) {
+                return null;
+            }
+            ImageIcon icon = new ImageIcon(scale(source, width, height));
+            QuizMetrics.get().imageLoad.record(QuizMetrics.micros(start));
+            return icon;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        // Halve in steps first so large downscales keep the quality of SCALE_SMOOTH
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = next.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(current, 0, 0, w, h, null);
+            g2d.dispose();
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private static final class Entry {
+        final CompletableFuture<ImageIcon> future;
+        final long bytes;
+
+        Entry(CompletableFuture<ImageIcon> future, long bytes) {
+            this.future = future;
+            this.bytes = bytes;
+        }
+    }
+}
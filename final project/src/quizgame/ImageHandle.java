@@ -0,0 +1,31 @@
+package quizgame;
+
+import java.net.URL;
+
+/**
+ * A validated image resource, identified by a hash of its bytes so that
+ * different paths to identical files share one handle and one cache entry.
+ * {@link #NONE} stands for an empty or missing image.
+ */
+final class ImageHandle {
+    static final ImageHandle NONE = new ImageHandle(null, null, 0);
+
+    final String path;
+    final URL url;
+    final long contentHash;
+
+    ImageHandle(String path, URL url, long contentHash) {
+        this.path = path;
+        this.url = url;
+        this.contentHash = contentHash;
+    }
+
+    boolean isNone() {
+        return this == NONE;
+    }
+
+    @Override
+    public String toString() {
+        return isNone() ? "NONE" : path + "#" + Long.toHexString(contentHash);
+    }
+}
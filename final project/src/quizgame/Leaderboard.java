@@ -0,0 +1,80 @@
+package quizgame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Best K player results per category. Each category holds a sorted array of at
+ * most K entries, so offering a result and reading a leaderboard are O(K).
+ */
+final class Leaderboard {
+    static final class Entry {
+        final SessionRecord session;
+        final int player;
+        final int score;
+
+        Entry(SessionRecord session, int player) {
+            this.session = session;
+            this.player = player;
+            this.score = session.scores[player];
+        }
+    }
+
+    private final int k;
+    private final Map<String, Entry[]> categories = new HashMap<>();
+    private final Map<String, Integer> sizes = new HashMap<>();
+
+    Leaderboard(int k) {
+        this.k = k;
+    }
+
+    /**
+     * Adds every player of the session; higher scores rank first, ties keep the earlier result first.
+     */
+    synchronized void offer(SessionRecord session) {
+        Entry[] entries = categories.computeIfAbsent(session.category, c -> new Entry[k]);
+        int size = sizes.getOrDefault(session.category, 0);
+        for (int player = 0; player < session.players; player++) {
+            Entry entry = new Entry(session, player);
+            int position = size;
+            while (position > 0 && entries[position - 1].score < entry.score) {
+                position--;
+            }
+            if (position >= k) {
+                continue;
+            }
+            int moved = Math.min(size, k - 1) - position;
+            System.arraycopy(entries, position, entries, position + 1, moved);
+            entries[position] = entry;
+            size = Math.min(size + 1, k);
+        }
+        sizes.put(session.category, size);
+    }
+
+    synchronized List<Entry> top(String category) {
+        Entry[] entries = categories.get(category);
+        int size = sizes.getOrDefault(category, 0);
+        List<Entry> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(entries[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the session currently holds a leaderboard place.
+     */
+    synchronized boolean contains(SessionRecord session) {
+        Entry[] entries = categories.get(session.category);
+        int size = sizes.getOrDefault(session.category, 0);
+        for (int i = 0; i < size; i++) {
+            SessionRecord held = entries[i].session;
+            if (held == session || (held.timestamp == session.timestamp && held.seed == session.seed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,218 @@
+package quizgame;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays recorded games ({@link SessionRecording}) headless against the game
+ * logic, many at once, to measure answer handling and question transitions
+ * under load.
+ *
+ * Every replayed session has its own {@link QuizEngine} and feeds it the
+ * recorded events at the recorded times divided by the speed-up; a speed-up of
+ * 0 replays without waiting. The latency of an event is measured from the time
+ * it was due to the time the engine finished with it, so queueing in an
+ * overloaded replay shows up in the tail. Ticks drive the countdown as in the
+ * game, which makes a replay deterministic: a session whose final scores differ
+ * from the recorded ones is reported as diverged.
+ *
+ * {@code java -cp quizgame.jar quizgame.LoadGenerator recordings.bin [sessions] [speedup] [threads]}
+ * uses the question bank the game uses, so run it with the same quiz.bank.
+ */
+public final class LoadGenerator {
+    private final List<SessionRecording> recordings;
+    private final List<List<Question>> questions;
+    private final double speedup;
+    private final ScheduledExecutorService executor;
+    private final LatencyHistogram answerLatency = new LatencyHistogram();
+    private final LatencyHistogram tickLatency = new LatencyHistogram();
+    private final LatencyHistogram transitionLatency = new LatencyHistogram();
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicInteger diverged = new AtomicInteger();
+    private final CountDownLatch finished;
+
+    private LoadGenerator(List<SessionRecording> recordings, List<List<Question>> questions,
+                          int sessions, double speedup, int threads) {
+        this.recordings = recordings;
+        this.questions = questions;
+        this.speedup = speedup;
+        this.finished = new CountDownLatch(sessions);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, r -> {
+            Thread t = new Thread(r, "replay-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Finds the questions of the recordings in the bank by their keys, or by id
+     * for recordings made before keys; recordings whose questions are no longer
+     * there are left out.
+     */
+    static LoadGenerator create(List<SessionRecording> recordings, QuestionBank bank,
+                                int sessions, double speedup, int threads) {
+        StudyDeck.Keys keys = new StudyDeck.Keys(bank);
+        List<SessionRecording> usable = new ArrayList<>();
+        List<List<Question>> questions = new ArrayList<>();
+        for (SessionRecording recording : recordings) {
+            try {
+                List<Question> game = new ArrayList<>();
+                if (recording.questionKeys != null) {
+                    for (long key : recording.questionKeys) {
+                        int id = keys.find(key);
+                        if (id < 0) {
+                            throw new IndexOutOfBoundsException("a question is no longer in the bank");
+                        }
+                        game.add(bank.get(id));
+                    }
+                } else {
+                    for (int id : recording.questionIds) {
+                        game.add(bank.get(id));
+                    }
+                }
+                usable.add(recording);
+                questions.add(game);
+            } catch (IndexOutOfBoundsException e) {
+                System.err.println("Skipping a " + recording.category + " recording: " + e.getMessage());
+            }
+        }
+        if (usable.isEmpty()) {
+            throw new IllegalArgumentException("No recording can be replayed against this bank");
+        }
+        return new LoadGenerator(usable, questions, sessions, speedup, threads);
+    }
+
+    /**
+     * Starts the sessions spread over the span of one recording and waits for all of them.
+     */
+    String run() throws InterruptedException {
+        long start = System.nanoTime();
+        int sessions = (int) finished.getCount();
+        long spanMicros = 0;
+        for (SessionRecording recording : recordings) {
+            int count = recording.getEventCount();
+            spanMicros = Math.max(spanMicros, count == 0 ? 0 : recording.timesMicros[count - 1]);
+        }
+        long rampNanos = speedup > 0 ? (long) (1000 * spanMicros / speedup) : 0;
+        for (int i = 0; i < sessions; i++) {
+            int r = i % recordings.size();
+            long offset = sessions > 1 ? rampNanos * i / sessions : 0;
+            Replay replay = new Replay(recordings.get(r), questions.get(r), start + offset);
+            executor.schedule(replay::step, offset, TimeUnit.NANOSECONDS);
+        }
+        finished.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        return report(sessions, elapsed);
+    }
+
+    private String report(int sessions, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d sessions, %d events in %.2f s: %.0f events/s, %d diverged%n",
+                sessions, events.get(), seconds, events.get() / seconds, diverged.get()));
+        report.append(line("answer", answerLatency));
+        report.append(line("tick", tickLatency));
+        report.append(line("transition", transitionLatency));
+        return report.toString();
+    }
+
+    private static String line(String name, LatencyHistogram histogram) {
+        return String.format("  %-10s n=%-8d p50=%8d us  p99=%8d us  p99.9=%8d us  max=%8d us%n", name,
+                histogram.getCount(), histogram.getQuantile(0.5), histogram.getQuantile(0.99),
+                histogram.getQuantile(0.999), histogram.getMax());
+    }
+
+    /**
+     * One replayed session. Its events run one after another on the pool, each
+     * scheduling the next, so a session never runs on two threads at once.
+     */
+    private final class Replay {
+        private final SessionRecording recording;
+        private final String category;
+        private final long startNanos;
+        private final QuizEngine engine = new QuizEngine();
+        private int event = -1;
+
+        Replay(SessionRecording recording, List<Question> questions, long startNanos) {
+            this.recording = recording;
+            this.category = recording.category;
+            this.startNanos = startNanos;
+            engine.start(questions, recording.players);
+        }
+
+        void step() {
+            if (event >= 0) {
+                handle(event);
+            }
+            event++;
+            if (event >= recording.getEventCount()) {
+                finish();
+                return;
+            }
+            long delay = dueNanos(event) - System.nanoTime();
+            if (delay > 0) {
+                executor.schedule(this::step, delay, TimeUnit.NANOSECONDS);
+            } else {
+                executor.execute(this::step);
+            }
+        }
+
+        private void handle(int i) {
+            long due = dueNanos(i);
+            switch (recording.kinds[i]) {
+                case SessionRecording.ANSWER:
+                    int index = engine.getQuestionIndex();
+                    if (engine.submitAnswer(recording.answers[i]) != null) {
+                        QuizMetrics.get().recordAnswer(category, engine.getCurrentQuestion().getId(), engine.getLatencyMicros(index));
+                    }
+                    answerLatency.record(QuizMetrics.micros(due));
+                    break;
+                case SessionRecording.TICK:
+                    if (engine.tick() == QuizEngine.Outcome.TIMEOUT) {
+                        QuizMetrics.get().recordTimeout();
+                    }
+                    tickLatency.record(QuizMetrics.micros(due));
+                    break;
+                default:
+                    engine.nextQuestion();
+                    transitionLatency.record(QuizMetrics.micros(due));
+                    break;
+            }
+            events.incrementAndGet();
+        }
+
+        private long dueNanos(int i) {
+            return speedup > 0 ? startNanos + (long) (1000 * recording.timesMicros[i] / speedup) : System.nanoTime();
+        }
+
+        private void finish() {
+            for (int player = 0; player < recording.players; player++) {
+                if (engine.getScore(player) != recording.scores[player]) {
+                    diverged.incrementAndGet();
+                    break;
+                }
+            }
+            finished.countDown();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: LoadGenerator recordings.bin [sessions] [speedup] [threads]");
+            System.exit(2);
+        }
+        List<SessionRecording> recordings = SessionRecording.readAll(Paths.get(args[0]));
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        double speedup = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        LoadGenerator generator = create(recordings, QuestionBank.open(), sessions, speedup, threads);
+        System.out.print(generator.run());
+    }
+}
@@ -0,0 +1,56 @@
+package quizgame;
+
+/**
+ * Several options may be correct; the answer must select exactly those.
+ */
+class MultiSelectQuestion extends Question {
+    static final int MAX_OPTIONS = 64;
+
+    private final String[] options;
+    private final long correctMask;
+    private final RenderDescriptor descriptor;
+
+    public MultiSelectQuestion(String questionText, String[] options, long correctMask, String imagePath) {
+        this(-1, questionText, options, correctMask, imagePath);
+    }
+
+    MultiSelectQuestion(int id, String questionText, String[] options, long correctMask, String imagePath) {
+        super(id, questionText, imagePath);
+        if (options.length > MAX_OPTIONS) {
+            throw new IllegalArgumentException("At most " + MAX_OPTIONS + " options");
+        }
+        this.options = options;
+        this.correctMask = correctMask;
+        this.descriptor = new RenderDescriptor(RenderDescriptor.InputKind.MULTI_SELECT, options);
+    }
+
+    static long encode(int[] selected) {
+        long mask = 0;
+        for (int index : selected) {
+            // Shifts wrap at 64, so an index out of range would select another option
+            if (index < 0 || index >= MAX_OPTIONS) {
+                throw new IllegalArgumentException("Bad option index " + index);
+            }
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    public String[] getOptions() {
+        return options;
+    }
+
+    long getCorrectMask() {
+        return correctMask;
+    }
+
+    @Override
+    boolean evaluate(long answer) {
+        return answer == correctMask;
+    }
+
+    @Override
+    RenderDescriptor getRenderDescriptor() {
+        return descriptor;
+    }
+}
@@ -0,0 +1,40 @@
+package quizgame;
+
+class MultipleChoiceQuestion extends Question {
+    private final String[] options;
+    private final int correctAnswer;
+    private final RenderDescriptor descriptor;
+
+    public MultipleChoiceQuestion(String questionText, String[] options, int correctAnswer, String imagePath) {
+        this(-1, questionText, options, correctAnswer, imagePath);
+    }
+
+    MultipleChoiceQuestion(int id, String questionText, String[] options, int correctAnswer, String imagePath) {
+        super(id, questionText, imagePath);
+        this.options = options;
+        this.correctAnswer = correctAnswer;
+        this.descriptor = new RenderDescriptor(RenderDescriptor.InputKind.CHOICE, options);
+    }
+
+    public String[] getOptions() {
+        return options;
+    }
+
+    int getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    public boolean isCorrect(int selectedAnswer) {
+        return selectedAnswer == correctAnswer;
+    }
+
+    @Override
+    boolean evaluate(long answer) {
+        return answer == correctAnswer;
+    }
+
+    @Override
+    RenderDescriptor getRenderDescriptor() {
+        return descriptor;
+    }
+}
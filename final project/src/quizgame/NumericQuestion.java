@@ -0,0 +1,41 @@
+package quizgame;
+
+/**
+ * Free numeric input, correct when within a tolerance of the expected value.
+ */
+class NumericQuestion extends Question {
+    private final double correctValue;
+    private final double tolerance;
+
+    public NumericQuestion(String questionText, double correctValue, double tolerance, String imagePath) {
+        this(-1, questionText, correctValue, tolerance, imagePath);
+    }
+
+    NumericQuestion(int id, String questionText, double correctValue, double tolerance, String imagePath) {
+        super(id, questionText, imagePath);
+        this.correctValue = correctValue;
+        this.tolerance = tolerance;
+    }
+
+    static long encode(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    double getCorrectValue() {
+        return correctValue;
+    }
+
+    double getTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    boolean evaluate(long answer) {
+        return Math.abs(Double.longBitsToDouble(answer) - correctValue) <= tolerance;
+    }
+
+    @Override
+    RenderDescriptor getRenderDescriptor() {
+        return RenderDescriptor.NUMERIC;
+    }
+}
@@ -0,0 +1,68 @@
+package quizgame;
+
+/**
+ * The options must be put in the right order. An order is packed into a long,
+ * four bits per position, first position in the lowest bits, with the count
+ * in the top four bits.
+ */
+class OrderingQuestion extends Question {
+    static final int MAX_OPTIONS = 15;
+
+    private final String[] options;
+    private final long correctOrder;
+    private final RenderDescriptor descriptor;
+
+    public OrderingQuestion(String questionText, String[] options, int[] correctOrder, String imagePath) {
+        this(-1, questionText, options, correctOrder, imagePath);
+    }
+
+    OrderingQuestion(int id, String questionText, String[] options, int[] correctOrder, String imagePath) {
+        super(id, questionText, imagePath);
+        if (options.length > MAX_OPTIONS || correctOrder.length != options.length) {
+            throw new IllegalArgumentException("The order must list each of at most " + MAX_OPTIONS + " options");
+        }
+        this.options = options;
+        this.correctOrder = encode(correctOrder);
+        this.descriptor = new RenderDescriptor(RenderDescriptor.InputKind.ORDERING, options);
+    }
+
+    static long encode(int[] order) {
+        if (order.length > MAX_OPTIONS) {
+            throw new IllegalArgumentException("At most " + MAX_OPTIONS + " positions");
+        }
+        long packed = (long) order.length << 60;
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] < 0 || order[i] >= MAX_OPTIONS) {
+                throw new IllegalArgumentException("Bad option index " + order[i]);
+            }
+            packed |= (long) order[i] << (4 * i);
+        }
+        return packed;
+    }
+
+    static int[] decode(long packed) {
+        int[] order = new int[(int) (packed >>> 60)];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (int) (packed >>> (4 * i)) & 0xf;
+        }
+        return order;
+    }
+
+    public String[] getOptions() {
+        return options;
+    }
+
+    long getCorrectOrder() {
+        return correctOrder;
+    }
+
+    @Override
+    boolean evaluate(long answer) {
+        return answer == correctOrder;
+    }
+
+    @Override
+    RenderDescriptor getRenderDescriptor() {
+        return descriptor;
+    }
+}
@@ -0,0 +1,49 @@
+package quizgame;
+
+/**
+ * Base type of every question. Answers are passed around as a single long whose
+ * meaning depends on the question's {@link RenderDescriptor.InputKind}: an option
+ * index, an option bitmask, a packed option order or the bits of a double.
+ */
+abstract class Question {
+    protected final int id;
+    protected final String questionText;
+    protected final String imagePath;
+
+    public Question(String questionText, String imagePath) {
+        this(-1, questionText, imagePath);
+    }
+
+    Question(int id, String questionText, String imagePath) {
+        this.id = id;
+        this.questionText = questionText;
+        this.imagePath = imagePath;
+    }
+
+    /**
+     * Returns the question's position in its bank, counted across all categories
+     * in bank order, or -1 for questions that do not come from a bank.
+     */
+    int getId() {
+        return id;
+    }
+
+    public String getQuestionText() {
+        return questionText;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    /**
+     * Returns true if the encoded answer is correct.
+     */
+    abstract boolean evaluate(long answer);
+
+    /**
+     * Describes how the answer is collected. The descriptor is immutable and
+     * created once per question.
+     */
+    abstract RenderDescriptor getRenderDescriptor();
+}
@@ -0,0 +1,279 @@
+package quizgame;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Question bank backed by external tab separated files.
+ *
+ * A bank is an immutable snapshot over one or more compiled sources
+ * ({@link BankIndex}); the categories are whatever the sources contain, and a
+ * category spread over several files holds their questions in file order.
+ * {@link BankWatcher} builds a new snapshot when the files change, and a game
+ * keeps the snapshot it started with.
+ *
+ * Every category owns a consecutive range of question ids. A new snapshot
+ * keeps the range of each category whose questions did not change and gives
+ * changed or new categories a fresh range above all earlier ones, so an id
+ * recorded against an older snapshot never names a different question.
+ */
+class QuestionBank {
+    static final String DEFAULT_RESOURCE = "/questions/questions.tsv";
+
+    private final List<BankIndex> sources;
+    private final Map<String, Category> categories = new LinkedHashMap<>();
+    private final Category[] byFirstId;
+    private final int idLimit;
+
+    /**
+     * @param previous the snapshot the sources replace, or null; unchanged categories keep its ids
+     */
+    QuestionBank(List<BankIndex> sources, QuestionBank previous) {
+        this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+        Map<String, List<BankIndex>> segments = new LinkedHashMap<>();
+        for (BankIndex source : sources) {
+            for (String name : source.getCategories()) {
+                segments.computeIfAbsent(name, k -> new ArrayList<>()).add(source);
+            }
+        }
+        int nextId = previous == null ? 0 : previous.idLimit;
+        for (Map.Entry<String, List<BankIndex>> entry : segments.entrySet()) {
+            String name = entry.getKey();
+            Category category = new Category(name, entry.getValue());
+            Category old = previous == null ? null : previous.categories.get(name);
+            if (old != null && old.signature == category.signature && old.size == category.size) {
+                category.firstId = old.firstId;
+            } else {
+                category.firstId = nextId;
+                nextId += category.size;
+            }
+            categories.put(name, category);
+        }
+        idLimit = nextId;
+        byFirstId = categories.values().toArray(new Category[0]);
+        Arrays.sort(byFirstId, Comparator.comparingInt(c -> c.firstId));
+    }
+
+    /**
+     * Opens the bank named by the quiz.bank system property, or the bundled
+     * question resource when the property is not set.
+     */
+    static QuestionBank open() throws IOException {
+        String source = System.getProperty("quiz.bank");
+        if (source != null) {
+            return open(Paths.get(source));
+        }
+        URL url = QuestionBank.class.getResource(DEFAULT_RESOURCE);
+        if (url == null) {
+            throw new FileNotFoundException(DEFAULT_RESOURCE);
+        }
+        return new QuestionBank(Collections.singletonList(BankIndex.open(url)), null);
+    }
+
+    /**
+     * Opens a question file, or every *.tsv file of a directory in name order.
+     */
+    static QuestionBank open(Path source) throws IOException {
+        List<BankIndex> indexes = new ArrayList<>();
+        for (Path file : sourceFiles(source)) {
+            indexes.add(BankIndex.open(file));
+        }
+        return new QuestionBank(indexes, null);
+    }
+
+    static List<Path> sourceFiles(Path source) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return Collections.singletonList(source);
+        }
+        try (Stream<Path> files = Files.list(source)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".tsv") && Files.isRegularFile(f))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    List<BankIndex> getSources() {
+        return sources;
+    }
+
+    List<String> getCategories() {
+        return new ArrayList<>(categories.keySet());
+    }
+
+    /**
+     * Returns an upper bound of the question ids; ids of categories that
+     * changed since an earlier snapshot are left unused.
+     */
+    int getQuestionCount() {
+        return idLimit;
+    }
+
+    /**
+     * Returns every distinct image path referenced by a question, without decoding the questions.
+     */
+    Set<String> getImagePaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        for (Category category : categories.values()) {
+            for (int i = 0; i < category.size; i++) {
+                String path = category.getImagePath(i);
+                if (!path.isEmpty()) {
+                    paths.add(path);
+                }
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the id of the first question of the category; its questions have consecutive ids.
+     */
+    int getFirstId(String category) {
+        Category c = categories.get(category);
+        return c == null ? -1 : c.firstId;
+    }
+
+    int size(String category) {
+        Category c = categories.get(category);
+        return c == null ? 0 : c.size;
+    }
+
+    /**
+     * Returns the category of the question with the given id.
+     */
+    String getCategory(int id) {
+        return category(id).name;
+    }
+
+    /**
+     * Decodes the question with the given id. Safe to call from several threads.
+     */
+    Question get(int id) {
+        Category category = category(id);
+        return category.get(id - category.firstId, id);
+    }
+
+    /**
+     * Returns the text of the question with the given id without decoding its options.
+     */
+    String getText(int id) {
+        Category category = category(id);
+        return category.getText(id - category.firstId);
+    }
+
+    /**
+     * Returns the search tags of the question with the given id, lower case.
+     */
+    String[] getTags(int id) {
+        Category category = category(id);
+        return category.getTags(id - category.firstId);
+    }
+
+    private Category category(int id) {
+        int low = 0;
+        int high = byFirstId.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (byFirstId[mid].firstId <= id) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (byFirstId.length == 0 || id < byFirstId[low].firstId || id >= byFirstId[low].firstId + byFirstId[low].size) {
+            throw new IndexOutOfBoundsException("Question id " + id + " is not in this bank");
+        }
+        return byFirstId[low];
+    }
+
+    /**
+     * Decodes every question of the category. Returns an empty list for unknown categories.
+     */
+    List<Question> load(String category) {
+        Category c = categories.get(category);
+        if (c == null) {
+            return Collections.emptyList();
+        }
+        List<Question> questions = new ArrayList<>(c.size);
+        for (int i = 0; i < c.size; i++) {
+            questions.add(c.get(i, c.firstId + i));
+        }
+        return questions;
+    }
+
+    /**
+     * Decodes only the questions at the given positions of the category, in that order.
+     */
+    List<Question> load(String category, int[] positions) {
+        Category c = categories.get(category);
+        if (c == null) {
+            return Collections.emptyList();
+        }
+        List<Question> questions = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            if (position < 0 || position >= c.size) {
+                throw new IndexOutOfBoundsException("Question " + position + " of " + category);
+            }
+            questions.add(c.get(position, c.firstId + position));
+        }
+        return questions;
+    }
+
+    /**
+     * A category as the concatenation of its segments in the source files.
+     */
+    private static final class Category {
+        final String name;
+        final BankIndex[] segments;
+        final int[] segmentStarts;
+        final int size;
+        final long signature;
+        int firstId;
+
+        Category(String name, List<BankIndex> sources) {
+            this.name = name;
+            segments = sources.toArray(new BankIndex[0]);
+            segmentStarts = new int[segments.length];
+            int total = 0;
+            long hash = 17;
+            for (int i = 0; i < segments.length; i++) {
+                segmentStarts[i] = total;
+                total += segments[i].size(name);
+                hash = hash * 31 + segments[i].contentHash(name);
+            }
+            size = total;
+            signature = hash;
+        }
+
+        Question get(int position, int id) {
+            int segment = segment(position);
+            return segments[segment].get(name, position - segmentStarts[segment], id);
+        }
+
+        String getImagePath(int position) {
+            int segment = segment(position);
+            return segments[segment].getImagePath(name, position - segmentStarts[segment]);
+        }
+
+        String getText(int position) {
+            int segment = segment(position);
+            return segments[segment].getText(name, position - segmentStarts[segment]);
+        }
+
+        String[] getTags(int position) {
+            int segment = segment(position);
+            return segments[segment].getTags(name, position - segmentStarts[segment]);
+        }
+
+        private int segment(int position) {
+            int segment = segments.length - 1;
+            while (segmentStarts[segment] > position) {
+                segment--;
+            }
+            return segment;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package quizgame;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws the questions of a game as indices into a category without copying or
+ * shuffling it. Each draw walks a lazily materialized Fisher-Yates permutation
+ * that only remembers the swapped positions, so a game of K questions costs
+ * O(K) time and memory no matter how large the category is.
+ *
+ * A sampler also remembers the indices of the last few games and avoids them
+ * while the category has enough other questions. Use one sampler per player
+ * and category. Draws with the same seed and history are identical, which
+ * makes games replayable.
+ */
+final class QuestionSampler {
+    static final int DEFAULT_RECENT_GAMES = 3;
+
+    private final int recentGames;
+    private int[] recent = new int[0];
+    private int recentSize;
+    private int recentStart;
+    private final IntIntMap swaps = new IntIntMap();
+    private final IntIntMap recentSet = new IntIntMap();
+
+    QuestionSampler() {
+        this(DEFAULT_RECENT_GAMES);
+    }
+
+    QuestionSampler(int recentGames) {
+        this.recentGames = recentGames;
+    }
+
+    /**
+     * Returns up to count distinct indices in [0, populationSize) in random order.
+     */
+    int[] draw(int populationSize, int count, long seed) {
+        int[] picks = pass(populationSize, count, seed);
+        remember(picks);
+        return picks;
+    }
+
+    /**
+     * Returns count indices in [0, populationSize), going through the population
+     * again in a new order, with seed + 1, seed + 2 and so on, whenever it runs
+     * out. The game is remembered once, as a whole.
+     */
+    int[] drawRepeating(int populationSize, int count, long seed) {
+        if (populationSize <= 0) {
+            return new int[0];
+        }
+        int[] picks = pass(populationSize, count, seed);
+        for (int pass = 1; picks.length < count; pass++) {
+            int[] more = pass(populationSize, count - picks.length, seed + pass);
+            int drawn = picks.length;
+            picks = Arrays.copyOf(picks, drawn + more.length);
+            System.arraycopy(more, 0, picks, drawn, more.length);
+        }
+        remember(picks);
+        return picks;
+    }
+
+    private int[] pass(int populationSize, int count, long seed) {
+        count = Math.min(count, populationSize);
+        SplittableRandom random = new SplittableRandom(seed);
+        swaps.clear();
+        recentSet.clear();
+        for (int i = 0; i < recentSize; i++) {
+            recentSet.put(recent[(recentStart + i) % recent.length], 1);
+        }
+
+        int[] picks = new int[count];
+        int picked = 0;
+        // Recently asked questions are set aside and only used if the category runs dry
+        int[] deferred = new int[count];
+        int deferredCount = 0;
+        for (int i = 0; i < populationSize && picked < count; i++) {
+            int j = i + random.nextInt(populationSize - i);
+            int atI = swaps.get(i, i);
+            int atJ = swaps.get(j, j);
+            swaps.put(j, atI);
+            if (recentSet.get(atJ, 0) == 0) {
+                picks[picked++] = atJ;
+            } else if (deferredCount < count) {
+                deferred[deferredCount++] = atJ;
+            }
+        }
+        for (int i = 0; picked < count && i < deferredCount; i++) {
+            picks[picked++] = deferred[i];
+        }
+        return picks;
+    }
+
+    private void remember(int[] picks) {
+        int capacity = recentGames * picks.length;
+        if (capacity == 0) {
+            return;
+        }
+        if (recent.length != capacity) {
+            int[] resized = new int[capacity];
+            int keep = Math.min(recentSize, capacity);
+            for (int i = 0; i < keep; i++) {
+                resized[i] = recent[(recentStart + recentSize - keep + i) % recent.length];
+            }
+            recent = resized;
+            recentSize = keep;
+            recentStart = 0;
+        }
+        for (int index : picks) {
+            if (recentSize < recent.length) {
+                recent[(recentStart + recentSize++) % recent.length] = index;
+            } else {
+                recent[recentStart] = index;
+                recentStart = (recentStart + 1) % recent.length;
+            }
+        }
+    }
+
+    /**
+     * Open addressing int to int map with linear probing; no boxing and no removal.
+     */
+    private static final class IntIntMap {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] keys = new int[32];
+        private int[] values = new int[32];
+        private int size;
+
+        IntIntMap() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(int key, int defaultValue) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                if (keys[slot] == EMPTY) {
+                    return defaultValue;
+                }
+            }
+        }
+
+        void put(int key, int value) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(keys, EMPTY);
+                size = 0;
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package quizgame;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Authoring view over a {@link SearchIndex}: searches while the query is typed
+ * and lists the matching questions with their id, category, text and tags.
+ * The table asks only for the rows on screen and those are read from the bank
+ * on demand, so a query matching most of a large bank lists at once. The query
+ * field stays disabled until the index is built; the EDT never waits for it.
+ */
+class QuestionSearchDialog extends JDialog {
+    private final JTextField queryField = new JTextField(40);
+    private final JLabel statusLabel = new JLabel("Indexing questions...");
+    private final Results results = new Results();
+    private SearchIndex index;
+
+    QuestionSearchDialog(Frame owner, CompletableFuture<SearchIndex> searchIndex) {
+        super(owner, "Question Search", false);
+        JTable table = new JTable(results);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
+        table.getColumnModel().getColumn(0).setPreferredWidth(60);
+        table.getColumnModel().getColumn(1).setPreferredWidth(110);
+        table.getColumnModel().getColumn(2).setPreferredWidth(520);
+        table.getColumnModel().getColumn(3).setPreferredWidth(160);
+
+        JPanel top = new JPanel(new BorderLayout(8, 0));
+        top.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        top.add(new JLabel("Search:"), BorderLayout.WEST);
+        top.add(queryField, BorderLayout.CENTER);
+        queryField.setToolTipText("Words must all match; OR separates alternatives; tag:name matches a tag or category");
+        queryField.setEnabled(false);
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                search();
+            }
+        });
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+        setSize(900, 500);
+        setLocationRelativeTo(owner);
+
+        searchIndex.thenAcceptAsync(built -> {
+            index = built;
+            queryField.setEnabled(true);
+            queryField.requestFocusInWindow();
+            search();
+        }, SwingUtilities::invokeLater);
+    }
+
+    private void search() {
+        if (index == null) {
+            return;
+        }
+        String query = queryField.getText();
+        long start = System.nanoTime();
+        int[] ids = query.trim().isEmpty() ? new int[0] : index.search(query);
+        long micros = (System.nanoTime() - start) / 1000;
+        results.show(index.getBank(), ids);
+        statusLabel.setText(query.trim().isEmpty() ? "Type keywords to search " + index.getTermCount() + " terms"
+                : ids.length + (ids.length == 1 ? " match" : " matches") + " in " + micros + " µs");
+    }
+
+    /**
+     * The matching ids; the other columns are looked up when a row is painted.
+     */
+    private static final class Results extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Id", "Category", "Question", "Tags"};
+
+        private QuestionBank bank;
+        private int[] ids = new int[0];
+
+        void show(QuestionBank bank, int[] ids) {
+            this.bank = bank;
+            this.ids = ids;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return ids.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            int id = ids[row];
+            switch (column) {
+                case 0:
+                    return id;
+                case 1:
+                    return bank.getCategory(id);
+                case 2:
+                    return bank.getText(id);
+                default:
+                    return String.join(", ", bank.getTags(id));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package quizgame;
+
+import java.util.Arrays;
+
+/**
+ * Online statistics per question, indexed by {@link Question#getId()}: how often
+ * it is answered correctly and how long players take. Both are exponentially
+ * weighted means that start from a neutral prior and follow a plain running
+ * mean until they have {@code 1 / MIN_WEIGHT} answers, so new questions settle
+ * quickly and old ones keep tracking change. Everything lives in primitive
+ * arrays; recording an answer does not allocate.
+ *
+ * The difficulty of a question combines its error rate and its latency and is
+ * kept as one of {@link #BUCKETS} levels for {@link AdaptiveSelector}.
+ */
+final class QuestionStats {
+    static final int BUCKETS = 16;
+
+    private static final float MIN_WEIGHT = 0.05f;
+    private static final float PRIOR_ACCURACY = 0.5f;
+    private static final float PRIOR_LATENCY_MILLIS = QuizEngine.QUESTION_TIME * 500f;
+    private static final float LATENCY_SHARE = 0.25f;
+
+    private int[] attempts;
+    private float[] accuracy;
+    private float[] latencyMillis;
+    private byte[] buckets;
+
+    QuestionStats(int questionCount) {
+        attempts = new int[0];
+        accuracy = new float[0];
+        latencyMillis = new float[0];
+        buckets = new byte[0];
+        ensureCapacity(questionCount);
+    }
+
+    /**
+     * Adds one answer; a timeout counts as a wrong answer that took the full time.
+     */
+    synchronized void record(int id, boolean correct, long latencyMicros) {
+        if (id < 0) {
+            return;
+        }
+        ensureCapacity(id + 1);
+        int n = ++attempts[id];
+        // The prior counts as one earlier answer
+        float weight = Math.max(1f / (n + 1), MIN_WEIGHT);
+        accuracy[id] += weight * ((correct ? 1f : 0f) - accuracy[id]);
+        latencyMillis[id] += weight * (latencyMicros / 1000f - latencyMillis[id]);
+        buckets[id] = (byte) bucketOf(accuracy[id], latencyMillis[id]);
+    }
+
+    synchronized int getAttempts(int id) {
+        return id < attempts.length ? attempts[id] : 0;
+    }
+
+    synchronized float getAccuracy(int id) {
+        return id < accuracy.length ? accuracy[id] : PRIOR_ACCURACY;
+    }
+
+    synchronized float getLatencyMillis(int id) {
+        return id < latencyMillis.length ? latencyMillis[id] : PRIOR_LATENCY_MILLIS;
+    }
+
+    /**
+     * Returns the difficulty level of the question, 0 being the easiest.
+     */
+    synchronized int getBucket(int id) {
+        return id >= 0 && id < buckets.length ? buckets[id] : bucketOf(PRIOR_ACCURACY, PRIOR_LATENCY_MILLIS);
+    }
+
+    private static int bucketOf(float accuracy, float latencyMillis) {
+        float slowness = Math.min(1f, latencyMillis / (QuizEngine.QUESTION_TIME * 1000f));
+        float difficulty = (1 - LATENCY_SHARE) * (1 - accuracy) + LATENCY_SHARE * slowness;
+        return Math.min(BUCKETS - 1, (int) (difficulty * BUCKETS));
+    }
+
+    private void ensureCapacity(int count) {
+        int old = attempts.length;
+        if (count <= old) {
+            return;
+        }
+        int capacity = Math.max(count, old * 2);
+        attempts = Arrays.copyOf(attempts, capacity);
+        accuracy = Arrays.copyOf(accuracy, capacity);
+        latencyMillis = Arrays.copyOf(latencyMillis, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+        Arrays.fill(accuracy, old, capacity, PRIOR_ACCURACY);
+        Arrays.fill(latencyMillis, old, capacity, PRIOR_LATENCY_MILLIS);
+        Arrays.fill(buckets, old, capacity, (byte) bucketOf(PRIOR_ACCURACY, PRIOR_LATENCY_MILLIS));
+    }
+}
@@ -0,0 +1,196 @@
+package quizgame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Headless rules of one quiz session: question order, turn order, scoring and
+ * the per-question countdown. It has no Swing dependency and no threads of its
+ * own; a view or server drives it by calling {@link #submitAnswer(long)},
+ * {@link #tick()} once per elapsed second and {@link #nextQuestion()} when it is
+ * ready to move on. An instance is not thread-safe and can be restarted.
+ *
+ * Any number of players take the questions in turn; scores live in a
+ * {@link RankIndex}, so standings can be read after every answer.
+ */
+class QuizEngine {
+    static final int QUESTION_TIME = 15;
+
+    enum Outcome { CORRECT, INCORRECT, TIMEOUT }
+
+    private List<Question> questions = Collections.emptyList();
+    private int players = 1;
+    private int questionIndex;
+    private RankIndex ranking = new RankIndex(1, 0);
+    private int timeLeft;
+    private boolean awaitingAnswer;
+    private long questionStartNanos;
+
+    // Per-question history of the current session
+    private Outcome[] outcomes = new Outcome[0];
+    private long[] answers = new long[0];
+    private long[] latencyMicros = new long[0];
+
+    /**
+     * Starts a new session over the given questions, resetting scores. Player p
+     * takes questions p, p + players, p + 2 * players and so on.
+     */
+    void start(List<Question> questions, int players) {
+        if (players <= 0) {
+            throw new IllegalArgumentException("A game needs at least one player");
+        }
+        this.questions = new ArrayList<>(questions);
+        this.players = players;
+        ranking = new RankIndex(players, (questions.size() + players - 1) / players);
+        questionIndex = 0;
+        outcomes = new Outcome[questions.size()];
+        answers = new long[questions.size()];
+        latencyMicros = new long[questions.size()];
+        beginQuestion();
+    }
+
+    /**
+     * Evaluates an encoded answer (see {@link Question}) for the current question
+     * and credits the player whose turn it is. Returns null if no answer is
+     * expected right now.
+     */
+    Outcome submitAnswer(long answer) {
+        if (!awaitingAnswer) {
+            return null;
+        }
+        awaitingAnswer = false;
+        answers[questionIndex] = answer;
+        latencyMicros[questionIndex] = (System.nanoTime() - questionStartNanos) / 1000;
+        Outcome outcome = Outcome.INCORRECT;
+        if (questions.get(questionIndex).evaluate(answer)) {
+            ranking.add(getCurrentPlayer(), 1);
+            outcome = Outcome.CORRECT;
+        }
+        outcomes[questionIndex] = outcome;
+        return outcome;
+    }
+
+    /**
+     * Advances the countdown by one second. Returns TIMEOUT when the time for the
+     * current question runs out, otherwise null.
+     */
+    Outcome tick() {
+        if (!awaitingAnswer) {
+            return null;
+        }
+        timeLeft--;
+        if (timeLeft <= 0) {
+            timeLeft = 0;
+            awaitingAnswer = false;
+            answers[questionIndex] = -1;
+            latencyMicros[questionIndex] = QUESTION_TIME * 1_000_000L;
+            outcomes[questionIndex] = Outcome.TIMEOUT;
+            return Outcome.TIMEOUT;
+        }
+        return null;
+    }
+
+    /**
+     * Moves on after an answer or timeout. Returns false when the game is over.
+     */
+    boolean nextQuestion() {
+        if (questionIndex < questions.size()) {
+            questionIndex++;
+        }
+        beginQuestion();
+        return !isOver();
+    }
+
+    private void beginQuestion() {
+        timeLeft = QUESTION_TIME;
+        awaitingAnswer = !isOver();
+        questionStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Replaces a question that has not been shown yet and returns the one it replaces.
+     */
+    Question setQuestion(int index, Question question) {
+        if (index <= questionIndex || index >= questions.size()) {
+            throw new IllegalArgumentException("Question " + index + " is not upcoming");
+        }
+        return questions.set(index, question);
+    }
+
+    Question getCurrentQuestion() {
+        return isOver() ? null : questions.get(questionIndex);
+    }
+
+    List<Question> getQuestions() {
+        return questions;
+    }
+
+    int getQuestionIndex() {
+        return questionIndex;
+    }
+
+    int getQuestionCount() {
+        return questions.size();
+    }
+
+    boolean isOver() {
+        return questionIndex >= questions.size();
+    }
+
+    boolean isAwaitingAnswer() {
+        return awaitingAnswer;
+    }
+
+    int getPlayerCount() {
+        return players;
+    }
+
+    int getCurrentPlayer() {
+        return getPlayer(questionIndex);
+    }
+
+    int getPlayer(int question) {
+        return question % players;
+    }
+
+    int getScore(int player) {
+        return ranking.getScore(player);
+    }
+
+    /**
+     * Returns the live standings of the session. Callers must not change it.
+     */
+    RankIndex getRanking() {
+        return ranking;
+    }
+
+    int getTimeLeft() {
+        return timeLeft;
+    }
+
+    /**
+     * Returns how the given question of this session ended, or null if it has not yet.
+     */
+    Outcome getOutcome(int question) {
+        return outcomes[question];
+    }
+
+    /**
+     * Returns the encoded answer given to the question, -1 after a timeout.
+     */
+    long getAnswer(int question) {
+        return answers[question];
+    }
+
+    /**
+     * Returns the time from showing the question to its answer or timeout.
+     */
+    int getLatencyMillis(int question) {
+        return (int) (latencyMicros[question] / 1000);
+    }
+
+    long getLatencyMicros(int question) {
+        return latencyMicros[question];
+    }
+}
@@ -0,0 +1,242 @@
+package quizgame;
+
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide latency metrics: player answer times per category and per
+ * question, and internal timings (image loads, question panel rebuilds, card
+ * swaps, EDT event queue lag). All values are recorded in microseconds into
+ * {@link LatencyHistogram}s, so recording never takes a lock. A bank can hold
+ * millions of questions, so only about quiz.metricsMaxQuestions (1000 by
+ * default) of them get a histogram; once that many are tracked, a sweep every
+ * ten seconds drops the least answered quarter to make room for new ones.
+ *
+ * The metrics are registered as the MBean quizgame:type=QuizMetrics. When
+ * quiz.metricsFile is set they are also written there in the Prometheus text
+ * format every quiz.metricsIntervalSeconds (10 by default) and on exit.
+ */
+public final class QuizMetrics implements QuizMetricsMBean {
+    private static final QuizMetrics INSTANCE = new QuizMetrics();
+
+    final LatencyHistogram imageLoad = new LatencyHistogram();
+    final LatencyHistogram panelRebuild = new LatencyHistogram();
+    final LatencyHistogram cardSwap = new LatencyHistogram();
+    final LatencyHistogram edtLag = new LatencyHistogram();
+    private final LatencyHistogram answers = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> categoryAnswers = new ConcurrentHashMap<>();
+    private final int maxQuestions = Integer.getInteger("quiz.metricsMaxQuestions", 1000);
+    private final Map<Integer, LatencyHistogram> questionAnswers = new ConcurrentHashMap<>();
+    // Answers to questions that were not tracked, or no longer are
+    private final AtomicLong untrackedAnswers = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "quiz-metrics");
+        t.setDaemon(true);
+        return t;
+    });
+    private final String dumpFile = System.getProperty("quiz.metricsFile");
+    private volatile boolean edtProbeStarted;
+
+    private QuizMetrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("quizgame:type=QuizMetrics"));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        scheduler.scheduleAtFixedRate(this::sweepQuestions, 10, 10, TimeUnit.SECONDS);
+        if (dumpFile != null) {
+            long interval = Long.getLong("quiz.metricsIntervalSeconds", 10);
+            scheduler.scheduleAtFixedRate(this::writeDumpFile, interval, interval, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::writeDumpFile, "quiz-metrics-dump"));
+        }
+    }
+
+    static QuizMetrics get() {
+        return INSTANCE;
+    }
+
+    static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    void recordAnswer(String category, int questionId, long latencyMicros) {
+        answers.record(latencyMicros);
+        if (category != null) {
+            categoryAnswers.computeIfAbsent(category, c -> new LatencyHistogram()).record(latencyMicros);
+        }
+        if (questionId >= 0) {
+            LatencyHistogram histogram = questionAnswers.get(questionId);
+            if (histogram == null && questionAnswers.size() < maxQuestions) {
+                histogram = questionAnswers.computeIfAbsent(questionId, q -> new LatencyHistogram());
+            }
+            if (histogram != null) {
+                histogram.record(latencyMicros);
+            } else {
+                untrackedAnswers.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Makes room for newly answered questions once the tracked ones fill the
+     * limit, by dropping the least answered quarter of them. Their answers move
+     * to the untracked count.
+     */
+    void sweepQuestions() {
+        int size = questionAnswers.size();
+        if (maxQuestions <= 0 || size < maxQuestions) {
+            return;
+        }
+        List<Map.Entry<Integer, LatencyHistogram>> entries = new ArrayList<>(questionAnswers.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().getCount()));
+        int drop = Math.max(1, size / 4);
+        for (int i = 0; i < drop && i < entries.size(); i++) {
+            Map.Entry<Integer, LatencyHistogram> least = entries.get(i);
+            if (questionAnswers.remove(least.getKey(), least.getValue())) {
+                untrackedAnswers.addAndGet(least.getValue().getCount());
+            }
+        }
+    }
+
+    void recordTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    /**
+     * Starts measuring how long events wait in the EDT queue by posting a probe
+     * every 100 ms. Only the first call has an effect.
+     */
+    void startEdtLagProbe() {
+        if (edtProbeStarted) {
+            return;
+        }
+        edtProbeStarted = true;
+        scheduler.scheduleAtFixedRate(() -> {
+            long posted = System.nanoTime();
+            SwingUtilities.invokeLater(() -> edtLag.record(micros(posted)));
+        }, 100, 100, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getAnswerCount() {
+        return answers.getCount();
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    @Override
+    public double getAnswerLatencyMedianMillis() {
+        return answers.getQuantile(0.5) / 1000.0;
+    }
+
+    @Override
+    public double getAnswerLatencyP99Millis() {
+        return answers.getQuantile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getImageLoadP99Millis() {
+        return imageLoad.getQuantile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getPanelRebuildP99Millis() {
+        return panelRebuild.getQuantile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getCardSwapP99Millis() {
+        return cardSwap.getQuantile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getEdtLagP99Millis() {
+        return edtLag.getQuantile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getEdtLagMaxMillis() {
+        return edtLag.getMax() / 1000.0;
+    }
+
+    @Override
+    public String dumpPrometheus() {
+        StringBuilder out = new StringBuilder();
+        summary(out, "quiz_answer_latency_seconds", "Time from showing a question to its answer.", null, null, answers);
+        out.append("# TYPE quiz_category_answer_latency_seconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(categoryAnswers).entrySet()) {
+            summary(out, "quiz_category_answer_latency_seconds", null, "category", entry.getKey(), entry.getValue());
+        }
+        out.append("# HELP quiz_question_answer_latency_seconds Answer time of the most answered questions.\n");
+        out.append("# TYPE quiz_question_answer_latency_seconds summary\n");
+        for (Map.Entry<Integer, LatencyHistogram> entry : new TreeMap<>(questionAnswers).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            String labels = "question=\"" + entry.getKey() + "\"";
+            for (double quantile : new double[]{0.5, 0.9}) {
+                out.append("quiz_question_answer_latency_seconds{").append(labels).append(",quantile=\"")
+                        .append(quantile).append("\"} ").append(histogram.getQuantile(quantile) / 1e6).append('\n');
+            }
+            out.append("quiz_question_answer_latency_seconds_count{").append(labels).append("} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+        out.append("# TYPE quiz_untracked_question_answers_total counter\n");
+        out.append("quiz_untracked_question_answers_total ").append(untrackedAnswers.get()).append('\n');
+        out.append("# TYPE quiz_timeouts_total counter\n");
+        out.append("quiz_timeouts_total ").append(timeouts.get()).append('\n');
+        summary(out, "quiz_image_load_seconds", "Decode and scale time of one image.", null, null, imageLoad);
+        summary(out, "quiz_panel_rebuild_seconds", "Time to fill the question card for a new question.", null, null, panelRebuild);
+        summary(out, "quiz_card_swap_seconds", "Time to put the next question card on screen at a transition.", null, null, cardSwap);
+        summary(out, "quiz_edt_lag_seconds", "Time an event waits in the EDT queue.", null, null, edtLag);
+        return out.toString();
+    }
+
+    @Override
+    public void writeDumpFile() {
+        if (dumpFile == null) {
+            return;
+        }
+        try {
+            Path target = Paths.get(dumpFile);
+            Path partial = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.write(partial, dumpPrometheus().getBytes(StandardCharsets.UTF_8));
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void summary(StringBuilder out, String name, String help, String label, String value,
+                                LatencyHistogram histogram) {
+        String labels = label == null ? "" : label + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        if (help != null) {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(" summary\n");
+        }
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            out.append(name).append("{").append(labels).append(labels.isEmpty() ? "" : ",")
+                    .append("quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getQuantile(quantile) / 1e6).append('\n');
+        }
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffix).append(' ').append(histogram.getSum() / 1e6).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ').append(histogram.getCount()).append('\n');
+    }
+}
@@ -0,0 +1,34 @@
+package quizgame;
+
+/**
+ * JMX view of {@link QuizMetrics}. Latencies are in milliseconds.
+ */
+public interface QuizMetricsMBean {
+    long getAnswerCount();
+
+    long getTimeoutCount();
+
+    double getAnswerLatencyMedianMillis();
+
+    double getAnswerLatencyP99Millis();
+
+    double getImageLoadP99Millis();
+
+    double getPanelRebuildP99Millis();
+
+    double getCardSwapP99Millis();
+
+    double getEdtLagP99Millis();
+
+    double getEdtLagMaxMillis();
+
+    /**
+     * Returns all metrics in the Prometheus text exposition format.
+     */
+    String dumpPrometheus();
+
+    /**
+     * Writes the Prometheus dump to the configured metrics file now.
+     */
+    void writeDumpFile();
+}
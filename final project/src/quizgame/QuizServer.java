@@ -0,0 +1,732 @@
+package quizgame;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Hosts many independent quiz sessions over a line based TCP protocol.
+ *
+ * Every connection is one session with its own {@link QuizEngine}. No thread
+ * blocks on a client: one selector thread does all socket I/O without blocking,
+ * and the requests and countdown ticks of a session run one at a time on a
+ * fixed pool of quiz.serverThreads workers (one per CPU by default). Thousands
+ * of idle sessions therefore cost a channel and a few small objects each, not a
+ * thread. A client that stops reading is disconnected once
+ * {@link #MAX_PENDING_OUTPUT} bytes are waiting for it. All countdowns share one
+ * {@link GameClock} ticked by a single scheduler thread, and all sessions share
+ * the same immutable questions, each decoded the first time a game draws it.
+ *
+ * Requests and responses are tab separated lines. A request without tabs is split
+ * at whitespace for typing by hand, so a category name with spaces needs tabs.
+ * <pre>
+ *   CATEGORIES                  -> CATEGORIES  name...
+ *   START category [1|2] [seed] -> QUESTION  index  count  player  timeLeft  kind  text  option...
+ *   ANSWER answer               -> RESULT  CORRECT|INCORRECT  score1  score2, then QUESTION or OVER
+ *   SCORE                       -> SCORE  score1  score2
+ *   BUZZER category room        -> WAITING, then MATCH  player  and QUESTION with player 0 for both
+ *   QUIT
+ * </pre>
+ * The answer format depends on the question kind, see {@link RenderDescriptor#parseAnswer(String)}.
+ * When the time runs out the server sends RESULT TIMEOUT on its own. Errors are
+ * reported as ERROR lines.
+ *
+ * BUZZER joins the two player {@link BuzzerMatch} waiting in the named room. In
+ * a match ANSWER takes the question index as an optional second argument; a
+ * wrong answer is told LOCKED, an answer to a closed question LATE, and the
+ * correct answer received first ends the question for both players with RESULT  outcome
+ * score1  score2  winner. The match ends with OVER and a LATENCY line giving
+ * answers, median and p99 answer latency in milliseconds for each player.
+ *
+ * Sessions normally arrive over TCP; {@link #connectLoopback()} attaches one
+ * in-process for testing on a single machine.
+ *
+ * The bank can be replaced while the server runs ({@link #setBank}); every
+ * game keeps the questions of the bank it started with.
+ *
+ * Without a seed a game adapts its questions to the player through an
+ * {@link AdaptiveSelector}, learning question difficulty from every session;
+ * with a seed, or when quiz.adaptive=false, it draws a replayable random set.
+ */
+class QuizServer {
+    static final int DEFAULT_PORT = 5150;
+    static final int QUESTIONS_PER_GAME = Integer.getInteger("quiz.questionsPerGame", 10);
+    static final boolean ADAPTIVE = !"false".equals(System.getProperty("quiz.adaptive"));
+    static final int WORKER_THREADS = Integer.getInteger("quiz.serverThreads", Runtime.getRuntime().availableProcessors());
+    static final int MAX_PENDING_OUTPUT = 64 << 10;
+    private static final int MAX_LINE = 8 << 10;
+    // Requests a session handles before it lets the other sessions on the worker
+    private static final int DRAIN_BATCH = 64;
+
+    private volatile Catalog catalog;
+    private final QuestionStats stats;
+    private final GameClock clock = new GameClock();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "quiz-clock");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKER_THREADS, new ThreadFactory() {
+        private final AtomicInteger number = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "quiz-worker-" + number.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Map<String, BuzzerMatch> buzzerRooms = new ConcurrentHashMap<>();
+
+    QuizServer(QuestionBank bank) {
+        this.catalog = new Catalog(bank);
+        this.stats = new QuestionStats(bank.getQuestionCount());
+        ticker.scheduleAtFixedRate(() -> clock.tick(System.nanoTime()), 10, 10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Switches new games to the given bank; games already running are not affected.
+     */
+    void setBank(QuestionBank bank) {
+        catalog = new Catalog(bank);
+    }
+
+    /**
+     * One bank snapshot and the questions of it that games have drawn so far.
+     * Each question is decoded once and shared read-only by every session.
+     */
+    private static final class Catalog {
+        final QuestionBank bank;
+        final AtomicReferenceArray<Question> decoded;
+
+        Catalog(QuestionBank bank) {
+            this.bank = bank;
+            this.decoded = new AtomicReferenceArray<>(bank.getQuestionCount());
+        }
+
+        Question get(int id) {
+            Question question = decoded.get(id);
+            if (question == null) {
+                question = bank.get(id);
+                if (!decoded.compareAndSet(id, null, question)) {
+                    question = decoded.get(id);
+                }
+            }
+            return question;
+        }
+
+        /**
+         * Returns the questions of the category by position; positions must be below its size.
+         */
+        IntFunction<Question> questions(String category) {
+            int firstId = bank.getFirstId(category);
+            return position -> get(firstId + position);
+        }
+
+        List<Question> load(IntFunction<Question> questions, int[] positions) {
+            List<Question> game = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                game.add(questions.apply(position));
+            }
+            return game;
+        }
+    }
+
+    int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Runs the selector loop on the calling thread; it only returns on an I/O
+     * error of the listening socket.
+     */
+    void serve(int port) throws IOException {
+        try (Selector selector = Selector.open(); ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port), 1024);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            System.out.println("Quiz server listening on port " + ((InetSocketAddress) server.getLocalAddress()).getPort());
+            while (true) {
+                selector.select();
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(server, selector);
+                        continue;
+                    }
+                    SocketConnection connection = (SocketConnection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            connection.flush();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                    } catch (IOException e) {
+                        // The client went away
+                        connection.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel server, Selector selector) throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SocketConnection connection = new SocketConnection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connection.session = start(connection);
+    }
+
+    /**
+     * Starts a session that talks to the returned client through in-memory queues.
+     */
+    Loopback connectLoopback() {
+        Loopback loopback = new Loopback();
+        loopback.session = start(loopback.serverSide);
+        return loopback;
+    }
+
+    private Session start(Connection connection) {
+        activeSessions.incrementAndGet();
+        return new Session(connection);
+    }
+
+    static String questionLine(int index, int count, int player, int timeLeft, Question question) {
+        StringBuilder line = new StringBuilder("QUESTION\t")
+                .append(index).append('\t')
+                .append(count).append('\t')
+                .append(player).append('\t')
+                .append(timeLeft).append('\t');
+        RenderDescriptor descriptor = question.getRenderDescriptor();
+        line.append(descriptor.getKind()).append('\t').append(question.getQuestionText());
+        for (int i = 0; i < descriptor.getLabelCount(); i++) {
+            line.append('\t').append(descriptor.getLabel(i));
+        }
+        return line.toString();
+    }
+
+    /**
+     * One client as seen by the server: a sink for response lines. Requests are
+     * pushed into the session by whoever reads them.
+     */
+    interface Connection extends Closeable {
+        /**
+         * Sends one response line without blocking; safe to call from any thread.
+         */
+        void send(String line);
+
+        @Override
+        void close();
+    }
+
+    /**
+     * A non-blocking socket. The selector thread reads it and flushes output
+     * that did not fit into the socket buffer right away.
+     */
+    private static final class SocketConnection implements Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(4096);
+        private byte[] line = new byte[128];
+        private int lineLength;
+        private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+        private int outputBytes;
+        private boolean closed;
+        SelectionKey key;
+        Session session;
+
+        SocketConnection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Called on the selector thread; hands every complete line to the session.
+         */
+        void read() throws IOException {
+            input.clear();
+            int count = channel.read(input);
+            if (count < 0) {
+                close();
+                return;
+            }
+            long receivedNanos = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                byte b = input.get(i);
+                if (b == '\n') {
+                    int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+                    session.receive(new String(line, 0, length, StandardCharsets.UTF_8), receivedNanos);
+                    lineLength = 0;
+                } else if (lineLength == MAX_LINE) {
+                    send("ERROR\trequest longer than " + MAX_LINE + " bytes");
+                    close();
+                    return;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+        }
+
+        @Override
+        public void send(String text) {
+            ByteBuffer buffer = ByteBuffer.wrap((text + "\n").getBytes(StandardCharsets.UTF_8));
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (output.isEmpty()) {
+                    try {
+                        channel.write(buffer);
+                    } catch (IOException e) {
+                        close();
+                        return;
+                    }
+                    if (!buffer.hasRemaining()) {
+                        return;
+                    }
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    key.selector().wakeup();
+                } else if (outputBytes + buffer.remaining() > MAX_PENDING_OUTPUT) {
+                    // The client does not read its responses
+                    close();
+                    return;
+                }
+                output.add(buffer);
+                outputBytes += buffer.remaining();
+            }
+        }
+
+        /**
+         * Called on the selector thread when the socket can take more output.
+         */
+        synchronized void flush() throws IOException {
+            while (!output.isEmpty()) {
+                ByteBuffer buffer = output.peek();
+                int before = buffer.remaining();
+                channel.write(buffer);
+                outputBytes -= before - buffer.remaining();
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                output.poll();
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                output.clear();
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+            session.disconnected();
+        }
+    }
+
+    /**
+     * In-process client. Responses travel through a blocking queue, so the
+     * protocol and the buzzer arbitration can be exercised without sockets.
+     */
+    static final class Loopback implements Closeable {
+        // Compared by identity to mark the end of a stream
+        private static final String END = new String("END");
+
+        private final BlockingQueue<String> toClient = new LinkedBlockingQueue<>();
+        private Session session;
+        private final Connection serverSide = new Connection() {
+            @Override
+            public void send(String line) {
+                toClient.add(line);
+            }
+
+            @Override
+            public void close() {
+                toClient.add(END);
+            }
+        };
+
+        void send(String line) {
+            send(line, System.nanoTime());
+        }
+
+        /**
+         * Sends a line as if the server had read it at the given {@link System#nanoTime()}.
+         */
+        void send(String line, long receivedNanos) {
+            session.receive(line, receivedNanos);
+        }
+
+        /**
+         * Returns the next response, or null when none arrives in time or the session has ended.
+         */
+        String receive(long timeout, TimeUnit unit) throws InterruptedException {
+            String line = toClient.poll(timeout, unit);
+            if (line == END) {
+                toClient.add(END);
+                return null;
+            }
+            return line;
+        }
+
+        @Override
+        public void close() {
+            session.disconnected();
+        }
+    }
+
+    private final class Session {
+        private final Connection connection;
+        private final QuizEngine engine = new QuizEngine();
+        private final Map<String, QuestionSampler> samplers = new HashMap<>();
+        private final Map<String, AdaptiveSelector> selectors = new HashMap<>();
+        private AdaptiveSelector selector;
+        private String category;
+        private IntFunction<Question> pool;
+        private GameClock.Task countdownTask = new GameClock.Task(() -> { });
+        // Numbers the countdowns, so a tick still queued for a stopped one is recognisable
+        private int countdown;
+        private BuzzerMatch match;
+        private int matchPlayer;
+        // Requests and ticks of the session, run in order on one worker at a time
+        private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private boolean ended;
+
+        Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        void receive(String line, long receivedNanos) {
+            submit(() -> {
+                if (!ended && !handle(line.trim(), receivedNanos)) {
+                    end();
+                }
+            });
+        }
+
+        void disconnected() {
+            submit(this::end);
+        }
+
+        private void submit(Runnable task) {
+            inbox.add(task);
+            if (draining.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                Runnable task = inbox.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            draining.set(false);
+            if (!inbox.isEmpty() && draining.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private synchronized void end() {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            close();
+            activeSessions.decrementAndGet();
+            connection.close();
+        }
+
+        synchronized boolean handle(String line, long receivedNanos) {
+            String[] parts = line.indexOf('\t') >= 0 ? line.split("\t") : line.split("\\s+");
+            String command = parts[0].toUpperCase();
+            // A finished match still answers SCORE and LATE until the next game starts
+            if (match != null && (command.equals("START") || command.equals("BUZZER"))) {
+                match.leave(matchPlayer);
+                match = null;
+            }
+            switch (command) {
+                case "CATEGORIES":
+                    if (parts.length != 1) {
+                        send("ERROR\tusage: CATEGORIES");
+                        break;
+                    }
+                    send("CATEGORIES\t" + String.join("\t", catalog.bank.getCategories()));
+                    break;
+                case "START":
+                    start(parts);
+                    break;
+                case "BUZZER":
+                    joinBuzzer(parts);
+                    break;
+                case "ANSWER":
+                    if (match != null) {
+                        answerBuzzer(parts, receivedNanos);
+                    } else {
+                        answer(parts);
+                    }
+                    break;
+                case "SCORE":
+                    if (parts.length != 1) {
+                        send("ERROR\tusage: SCORE");
+                    } else if (match != null) {
+                        send("SCORE\t" + match.getScore(0) + "\t" + match.getScore(1));
+                    } else {
+                        send("SCORE\t" + scoreFields());
+                    }
+                    break;
+                case "QUIT":
+                    return false;
+                default:
+                    send("ERROR\tunknown command " + parts[0]);
+            }
+            return true;
+        }
+
+        private void start(String[] parts) {
+            if (parts.length < 2 || parts.length > 4 || parts.length > 2 && !parts[2].matches("[12]")) {
+                send("ERROR\tusage: START category [1|2] [seed]");
+                return;
+            }
+            Catalog pinned = catalog;
+            String name = parts[1];
+            int size = pinned.bank.size(name);
+            if (size == 0) {
+                send("ERROR\tunknown category " + name);
+                return;
+            }
+            long seed;
+            try {
+                seed = parts.length > 3 ? Long.parseLong(parts[3]) : ThreadLocalRandom.current().nextLong();
+            } catch (NumberFormatException e) {
+                send("ERROR\tbad seed " + parts[3]);
+                return;
+            }
+            int players = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+            if (selector != null && !engine.isOver()) {
+                selector.finishGame(engine.getQuestions());
+            }
+            IntFunction<Question> questions = pinned.questions(name);
+            List<Question> game;
+            if (ADAPTIVE && parts.length <= 3) {
+                int firstId = pinned.bank.getFirstId(name);
+                selector = selectors.get(name);
+                if (selector == null || !selector.matches(firstId, size)) {
+                    selector = new AdaptiveSelector(stats, firstId, size);
+                    selectors.put(name, selector);
+                }
+                game = selector.startGame(QUESTIONS_PER_GAME, players, questions);
+            } else {
+                selector = null;
+                int[] picks = samplers.computeIfAbsent(name, c -> new QuestionSampler())
+                        .draw(size, QUESTIONS_PER_GAME, seed);
+                game = pinned.load(questions, picks);
+            }
+            category = name;
+            pool = questions;
+            engine.start(game, players);
+            sendQuestion();
+        }
+
+        private void joinBuzzer(String[] parts) {
+            if (parts.length != 3) {
+                send("ERROR\tusage: BUZZER category room");
+                return;
+            }
+            Catalog pinned = catalog;
+            int size = pinned.bank.size(parts[1]);
+            if (size == 0) {
+                send("ERROR\tunknown category " + parts[1]);
+                return;
+            }
+            stopCountdown();
+            String room = parts[2];
+            while (true) {
+                BuzzerMatch candidate = buzzerRooms.computeIfAbsent(room, r -> {
+                    int[] picks = new QuestionSampler().draw(size, QUESTIONS_PER_GAME,
+                            ThreadLocalRandom.current().nextLong());
+                    return new BuzzerMatch(parts[1], pinned.load(pinned.questions(parts[1]), picks), clock, workers);
+                });
+                if (!candidate.getCategory().equals(parts[1])) {
+                    send("ERROR\troom " + room + " is playing " + candidate.getCategory());
+                    return;
+                }
+                int player = candidate.join(connection);
+                if (player >= 0) {
+                    match = candidate;
+                    matchPlayer = player;
+                    if (player == 1) {
+                        buzzerRooms.remove(room, candidate);
+                    }
+                    return;
+                }
+                // Full or abandoned; a fresh match takes its place
+                buzzerRooms.remove(room, candidate);
+            }
+        }
+
+        private void answerBuzzer(String[] parts, long receivedNanos) {
+            if (parts.length < 2 || parts.length > 3) {
+                send("ERROR\tusage: ANSWER answer [index]");
+                return;
+            }
+            int expected;
+            try {
+                expected = parts.length > 2 ? Integer.parseInt(parts[2]) : -1;
+            } catch (NumberFormatException e) {
+                send("ERROR\tbad question index " + parts[2]);
+                return;
+            }
+            String reply = match.answer(matchPlayer, parts[1], expected, receivedNanos);
+            if (reply != null) {
+                send(reply);
+            }
+        }
+
+        private void answer(String[] parts) {
+            if (parts.length != 2) {
+                send("ERROR\tusage: ANSWER answer");
+                return;
+            }
+            Question question = engine.getCurrentQuestion();
+            if (question == null) {
+                send("ERROR\tno question is waiting for an answer");
+                return;
+            }
+            long answer;
+            try {
+                answer = question.getRenderDescriptor().parseAnswer(parts[1]);
+            } catch (RuntimeException e) {
+                send("ERROR\tusage: ANSWER answer");
+                return;
+            }
+            QuizEngine.Outcome outcome = engine.submitAnswer(answer);
+            if (outcome == null) {
+                send("ERROR\tno question is waiting for an answer");
+                return;
+            }
+            stopCountdown();
+            QuizMetrics.get().recordAnswer(category, question.getId(), engine.getLatencyMicros(engine.getQuestionIndex()));
+            if (selector != null) {
+                selector.afterAnswer(engine, pool);
+            }
+            sendResult(outcome);
+        }
+
+        private synchronized void tick(int forCountdown) {
+            if (forCountdown != countdown) {
+                return;
+            }
+            QuizEngine.Outcome outcome = engine.tick();
+            if (outcome == QuizEngine.Outcome.TIMEOUT) {
+                stopCountdown();
+                QuizMetrics.get().recordTimeout();
+                if (selector != null) {
+                    selector.afterAnswer(engine, pool);
+                }
+                sendResult(outcome);
+            }
+        }
+
+        private void sendResult(QuizEngine.Outcome outcome) {
+            send("RESULT\t" + outcome + "\t" + scoreFields());
+            engine.nextQuestion();
+            sendQuestion();
+        }
+
+        /**
+         * The two score fields of the protocol; a one player game reports 0 for player 2.
+         */
+        private String scoreFields() {
+            return engine.getScore(0) + "\t" + (engine.getPlayerCount() > 1 ? engine.getScore(1) : 0);
+        }
+
+        private void sendQuestion() {
+            Question question = engine.getCurrentQuestion();
+            if (question == null) {
+                if (selector != null) {
+                    selector.finishGame(engine.getQuestions());
+                }
+                send("OVER\t" + scoreFields());
+                return;
+            }
+            send(questionLine(engine.getQuestionIndex(), engine.getQuestionCount(), engine.getCurrentPlayer() + 1,
+                    engine.getTimeLeft(), question));
+            stopCountdown();
+            int current = countdown;
+            countdownTask = new GameClock.Task(() -> submit(() -> tick(current)));
+            clock.scheduleAtFixedRate(countdownTask, 1000, 1000);
+        }
+
+        private void stopCountdown() {
+            clock.cancel(countdownTask);
+            countdown++;
+        }
+
+        private void send(String line) {
+            connection.send(line);
+        }
+
+        synchronized void close() {
+            stopCountdown();
+            if (match != null) {
+                match.leave(matchPlayer);
+                match = null;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        QuestionBank bank = QuestionBank.open();
+        ValidationReport report = BankValidator.validate(bank);
+        System.err.print(report.getIssues().isEmpty() ? report.summary() + "\n" : report.toString());
+        QuizServer server = new QuizServer(bank);
+        BankWatcher.watchConfigured(bank, reloaded -> {
+            ValidationReport reloadReport = BankValidator.validate(reloaded);
+            System.err.print(reloadReport.getIssues().isEmpty() ? reloadReport.summary() + "\n" : reloadReport.toString());
+            server.setBank(reloaded);
+        });
+        server.serve(port);
+    }
+}
@@ -0,0 +1,199 @@
+package quizgame;
+
+import java.util.Arrays;
+
+/**
+ * Live ranking of the scores of a fixed set of players, for games with
+ * anything from one to a few hundred players.
+ *
+ * Players are bucketed by score. A Fenwick tree over the scores, highest
+ * first, counts the players at each score, so the number of players ahead of a
+ * score and the score at a given place are O(log S) for scores up to S. Each
+ * score keeps its players in an intrusive linked list in the order they
+ * reached it, which breaks ties for listing. Changing a score is O(log S), the
+ * rank of a player O(log S) and the top K players O(K + D log S) for D distinct
+ * scores among them. Everything is held in int arrays.
+ *
+ * Players with equal scores share a rank, so ranks go 1, 2, 2, 4. Scores are
+ * non-negative; the index grows when a score passes the largest it was sized
+ * for. Not thread-safe.
+ */
+final class RankIndex {
+    private final int[] scores;
+    private final int[] next;
+    private final int[] prev;
+    private int maxScore;
+    private int[] heads;
+    private int[] tails;
+    private int[] counts;
+    // Fenwick tree; position maxScore - score + 1 holds the players with that score
+    private int[] tree;
+
+    /**
+     * Starts every player at 0, listed in player order.
+     *
+     * @param maxScore the highest score expected; higher ones are accepted at the cost of a rebuild
+     */
+    RankIndex(int players, int maxScore) {
+        if (players <= 0) {
+            throw new IllegalArgumentException("A ranking needs at least one player");
+        }
+        scores = new int[players];
+        next = new int[players];
+        prev = new int[players];
+        resize(Math.max(1, maxScore));
+        for (int player = 0; player < players; player++) {
+            link(player, 0);
+        }
+        rebuildTree();
+    }
+
+    int size() {
+        return scores.length;
+    }
+
+    int getScore(int player) {
+        return scores[player];
+    }
+
+    void add(int player, int delta) {
+        setScore(player, scores[player] + delta);
+    }
+
+    void setScore(int player, int score) {
+        if (score < 0) {
+            throw new IllegalArgumentException("Negative score " + score);
+        }
+        int old = scores[player];
+        if (score == old) {
+            return;
+        }
+        unlink(player, old);
+        update(old, -1);
+        if (score > maxScore) {
+            resize(Math.max(score, maxScore * 2));
+            link(player, score);
+            rebuildTree();
+        } else {
+            link(player, score);
+            update(score, 1);
+        }
+        scores[player] = score;
+    }
+
+    /**
+     * Returns the place of the player counted from 1; equal scores share a place.
+     */
+    int getRank(int player) {
+        return countAbove(scores[player]) + 1;
+    }
+
+    /**
+     * Returns the number of players with a higher score.
+     */
+    int countAbove(int score) {
+        if (score >= maxScore) {
+            return 0;
+        }
+        return prefix(Math.min(maxScore - score, maxScore + 1));
+    }
+
+    /**
+     * Returns the players at the top of the ranking, best first, at most k of
+     * them. Players with equal scores are listed in the order they reached it.
+     */
+    int[] top(int k) {
+        int[] result = new int[Math.min(k, scores.length)];
+        int filled = 0;
+        while (filled < result.length) {
+            int score = scoreAt(filled + 1);
+            for (int player = heads[score]; player >= 0 && filled < result.length; player = next[player]) {
+                result[filled++] = player;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the score of the player listed at the given place, counted from 1.
+     */
+    int scoreAt(int place) {
+        if (place < 1 || place > scores.length) {
+            throw new IndexOutOfBoundsException("Place " + place + " of " + scores.length);
+        }
+        // Descend the tree for the first position whose prefix holds the place
+        int position = 0;
+        int remaining = place;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int candidate = position + step;
+            if (candidate < tree.length && tree[candidate] < remaining) {
+                position = candidate;
+                remaining -= tree[candidate];
+            }
+        }
+        return maxScore - position;
+    }
+
+    private void link(int player, int score) {
+        next[player] = -1;
+        prev[player] = tails[score];
+        if (tails[score] >= 0) {
+            next[tails[score]] = player;
+        } else {
+            heads[score] = player;
+        }
+        tails[score] = player;
+        counts[score]++;
+    }
+
+    private void unlink(int player, int score) {
+        if (prev[player] >= 0) {
+            next[prev[player]] = next[player];
+        } else {
+            heads[score] = next[player];
+        }
+        if (next[player] >= 0) {
+            prev[next[player]] = prev[player];
+        } else {
+            tails[score] = prev[player];
+        }
+        counts[score]--;
+    }
+
+    private void update(int score, int delta) {
+        for (int i = maxScore - score + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private int prefix(int position) {
+        int sum = 0;
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void resize(int newMaxScore) {
+        int oldLength = heads == null ? 0 : heads.length;
+        heads = heads == null ? new int[newMaxScore + 1] : Arrays.copyOf(heads, newMaxScore + 1);
+        tails = tails == null ? new int[newMaxScore + 1] : Arrays.copyOf(tails, newMaxScore + 1);
+        counts = counts == null ? new int[newMaxScore + 1] : Arrays.copyOf(counts, newMaxScore + 1);
+        Arrays.fill(heads, oldLength, heads.length, -1);
+        Arrays.fill(tails, oldLength, tails.length, -1);
+        maxScore = newMaxScore;
+    }
+
+    private void rebuildTree() {
+        tree = new int[maxScore + 2];
+        for (int score = 0; score <= maxScore; score++) {
+            tree[maxScore - score + 1] = counts[score];
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
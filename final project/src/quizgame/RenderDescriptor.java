@@ -0,0 +1,68 @@
+package quizgame;
+
+/**
+ * How a question's answer is entered and encoded, independent of the widgets
+ * that present it.
+ */
+final class RenderDescriptor {
+    enum InputKind {
+        /** Pick one option; the answer is its index. */
+        CHOICE,
+        /** Pick any number of options; the answer is a bitmask of their indices. */
+        MULTI_SELECT,
+        /** Pick every option once, in order; see {@link OrderingQuestion#encode(int[])}. */
+        ORDERING,
+        /** Type a number; see {@link NumericQuestion#encode(double)}. */
+        NUMERIC
+    }
+
+    /** The GUI has this many answer buttons; questions with more options cannot be shown there. */
+    static final int MAX_DISPLAYED_LABELS = 4;
+
+    static final RenderDescriptor NUMERIC = new RenderDescriptor(InputKind.NUMERIC, new String[0]);
+
+    private final InputKind kind;
+    private final String[] labels;
+
+    RenderDescriptor(InputKind kind, String[] labels) {
+        this.kind = kind;
+        this.labels = labels;
+    }
+
+    InputKind getKind() {
+        return kind;
+    }
+
+    int getLabelCount() {
+        return labels.length;
+    }
+
+    String getLabel(int index) {
+        return labels[index];
+    }
+
+    /**
+     * Parses a textual answer: an index for CHOICE, comma separated indices for
+     * MULTI_SELECT and ORDERING, a decimal number for NUMERIC.
+     *
+     * @throws IllegalArgumentException if the text does not fit the input kind
+     */
+    long parseAnswer(String text) {
+        switch (kind) {
+            case NUMERIC:
+                return NumericQuestion.encode(Double.parseDouble(text.trim()));
+            case CHOICE:
+                return Integer.parseInt(text.trim());
+            default:
+                String[] parts = text.split(",");
+                int[] indices = new int[parts.length];
+                for (int i = 0; i < parts.length; i++) {
+                    indices[i] = Integer.parseInt(parts[i].trim());
+                    if (indices[i] < 0 || indices[i] >= labels.length) {
+                        throw new IllegalArgumentException("No option " + indices[i]);
+                    }
+                }
+                return kind == InputKind.ORDERING ? OrderingQuestion.encode(indices) : MultiSelectQuestion.encode(indices);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package quizgame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps image paths to {@link ImageHandle}s. Every path is looked up on the
+ * classpath and hashed at most once, ideally from {@link #validate} while the
+ * question bank loads; afterwards resolving is a map lookup. Paths packed into
+ * the image atlas take their hash from the atlas index instead of being read.
+ * Empty paths resolve to {@link ImageHandle#NONE} without any lookup, and a
+ * missing resource is reported once and then also resolves to NONE.
+ */
+final class ResourceResolver {
+    private final ImageAtlas atlas;
+    private final Map<String, ImageHandle> byPath = new ConcurrentHashMap<>();
+    private final Map<Long, ImageHandle> byHash = new ConcurrentHashMap<>();
+
+    /**
+     * @param atlas the packed images, or null when the build produced none
+     */
+    ResourceResolver(ImageAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    ImageAtlas getAtlas() {
+        return atlas;
+    }
+
+    ImageHandle resolve(String path) {
+        if (path == null || path.isEmpty()) {
+            return ImageHandle.NONE;
+        }
+        ImageHandle handle = byPath.get(path);
+        if (handle == null) {
+            handle = byPath.computeIfAbsent(path, this::lookup);
+        }
+        return handle;
+    }
+
+    /**
+     * Returns the handle for a path that was already resolved, or null when
+     * resolving it would still have to touch the classloader.
+     */
+    ImageHandle peek(String path) {
+        if (path == null || path.isEmpty()) {
+            return ImageHandle.NONE;
+        }
+        return byPath.get(path);
+    }
+
+    /**
+     * Resolves all paths up front so later lookups never touch the classloader.
+     * Returns the number of distinct images among them.
+     */
+    int validate(Collection<String> paths) {
+        long distinct = paths.stream().map(this::resolve).filter(h -> !h.isNone()).distinct().count();
+        return (int) distinct;
+    }
+
+    private ImageHandle lookup(String path) {
+        URL url = ResourceResolver.class.getResource(path);
+        if (url == null || path.endsWith("/")) {
+            System.err.println("Missing image resource " + path);
+            return ImageHandle.NONE;
+        }
+        long hash = atlas == null ? 0 : atlas.contentHash(path);
+        if (hash == 0) {
+            try (InputStream in = url.openStream()) {
+                hash = contentHash(in.readAllBytes());
+            } catch (IOException e) {
+                System.err.println("Unreadable image resource " + path + ": " + e.getMessage());
+                return ImageHandle.NONE;
+            }
+        }
+        return byHash.computeIfAbsent(hash, h -> new ImageHandle(path, url, h));
+    }
+
+    /**
+     * First 64 bits of the SHA-256 of the bytes, never 0. The atlas builder uses the same hash.
+     */
+    static long contentHash(byte[] bytes) {
+        try {
+            long hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(bytes)).getLong();
+            return hash == 0 ? 1 : hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
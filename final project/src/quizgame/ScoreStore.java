@@ -0,0 +1,203 @@
+package quizgame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable history of finished games: an append-only, memory mapped session log
+ * with a {@link Leaderboard} rebuilt from it on open.
+ *
+ * Each record is a length, a CRC32 and the encoded {@link SessionRecord}; a zero
+ * length marks the end, and a record with a bad checksum (a torn write) ends the
+ * log. {@link #append(SessionRecord)} updates the leaderboard right away and hands
+ * the write to a background thread, so callers on the EDT or a game tick never
+ * wait for I/O. Once the log holds twice the retained number of sessions it is
+ * compacted to the most recent ones plus every session that holds a
+ * leaderboard place.
+ */
+final class ScoreStore implements Closeable {
+    static final int LEADERBOARD_SIZE = 10;
+
+    private static final int MAGIC = 0x51534c31; // "QSL1"
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int GROWTH = 1 << 20;
+
+    private final Path file;
+    private final int retainSessions;
+    private final Leaderboard leaderboard = new Leaderboard(LEADERBOARD_SIZE);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "score-store");
+        t.setDaemon(true);
+        return t;
+    });
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int writePosition;
+    private int sessionCount;
+
+    private ScoreStore(Path file, int retainSessions) {
+        this.file = file;
+        this.retainSessions = retainSessions;
+    }
+
+    /**
+     * Opens the log in quiz.dataDir, by default ~/.quizgame.
+     */
+    static ScoreStore open() throws IOException {
+        Path dir = Paths.get(System.getProperty("quiz.dataDir",
+                System.getProperty("user.home") + "/.quizgame"));
+        return open(dir.resolve("sessions.log"), Integer.getInteger("quiz.retainSessions", 10_000));
+    }
+
+    static ScoreStore open(Path file, int retainSessions) throws IOException {
+        ScoreStore store = new ScoreStore(file, retainSessions);
+        store.load();
+        return store;
+    }
+
+    Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    void append(SessionRecord session) {
+        leaderboard.offer(session);
+        writer.execute(() -> {
+            try {
+                write(session);
+                if (sessionCount > 2 * retainSessions) {
+                    compact();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Waits for pending writes and releases the file.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            map.force();
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_SIZE;
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), GROWTH));
+        if (fresh) {
+            map.putInt(0, MAGIC);
+            map.putInt(4, 1);
+            writePosition = HEADER_SIZE;
+            return;
+        }
+        if (map.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a session log");
+        }
+        writePosition = scan(map, session -> {
+            leaderboard.offer(session);
+            sessionCount++;
+        });
+    }
+
+    /**
+     * Walks the log and returns the position after the last valid record.
+     */
+    private static int scan(MappedByteBuffer log, Consumer<SessionRecord> visitor) {
+        int position = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= log.capacity()) {
+            int length = log.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > log.capacity()) {
+                break;
+            }
+            byte[] data = new byte[length];
+            log.get(position + RECORD_HEADER_SIZE, data);
+            crc.reset();
+            crc.update(data);
+            if ((int) crc.getValue() != log.getInt(position + 4)) {
+                break;
+            }
+            try {
+                visitor.accept(SessionRecord.decode(data));
+            } catch (IOException e) {
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private void write(SessionRecord session) throws IOException {
+        byte[] data = session.encode();
+        int needed = writePosition + RECORD_HEADER_SIZE + data.length + 4;
+        if (needed > map.capacity()) {
+            map.force();
+            long size = (long) map.capacity() * 2;
+            while (size < needed) {
+                size *= 2;
+            }
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        // The payload goes in before the length so a crash never exposes a half written record,
+        // and a zero length after it ends the log ahead of whatever a torn write left behind
+        map.putInt(writePosition + RECORD_HEADER_SIZE + data.length, 0);
+        map.put(writePosition + RECORD_HEADER_SIZE, data);
+        map.putInt(writePosition + 4, (int) crc.getValue());
+        map.putInt(writePosition, data.length);
+        writePosition += RECORD_HEADER_SIZE + data.length;
+        sessionCount++;
+        map.force();
+    }
+
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        int skip = sessionCount - retainSessions;
+        int[] index = {0};
+        ScoreStore target = new ScoreStore(compacted, retainSessions);
+        target.load();
+        scan(map, session -> {
+            if (index[0]++ >= skip || leaderboard.contains(session)) {
+                try {
+                    target.write(session);
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            }
+        });
+        target.map.force();
+        target.channel.close();
+        target.writer.shutdown();
+
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), GROWTH));
+        writePosition = target.writePosition;
+        sessionCount = target.sessionCount;
+    }
+}
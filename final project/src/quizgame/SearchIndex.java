@@ -0,0 +1,276 @@
+package quizgame;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Inverted index over the text, options, tags and category of every question
+ * of one {@link QuestionBank} snapshot, for custom quizzes and for finding
+ * questions while authoring.
+ *
+ * Each term maps to the ascending ids of the questions that contain it. The
+ * posting lists are stored back to back in one byte array as varint encoded
+ * gaps, so the index is a few bytes per term occurrence and holds no boxed
+ * ids. Queries walk the lists with cursors and never decode more than they
+ * need: a conjunction leapfrogs from the shortest list.
+ *
+ * A query is a sequence of words that must all match; OR separates
+ * alternatives, and tag:name requires a tag (a category name counts as a tag).
+ * {@code world war ii OR tag:ww2} finds questions that mention World War II
+ * or are tagged with it. Words are matched case-insensitively on letters and
+ * digits.
+ */
+final class SearchIndex {
+    private static final String TAG_QUERY_PREFIX = "tag:";
+    private static final String TAG_TERM_PREFIX = "#";
+
+    private final QuestionBank bank;
+    private final Map<String, Integer> terms = new HashMap<>();
+    private final int[] postingStarts;
+    private final int[] postingCounts;
+    private final byte[] postings;
+
+    SearchIndex(QuestionBank bank) {
+        this.bank = bank;
+        List<int[]> lists = new ArrayList<>();
+        List<String> categories = bank.getCategories();
+        categories.sort(Comparator.comparingInt(bank::getFirstId));
+        Set<String> questionTerms = new HashSet<>();
+        for (String category : categories) {
+            int firstId = bank.getFirstId(category);
+            String categoryTag = TAG_TERM_PREFIX + category.toLowerCase(Locale.ROOT);
+            for (int id = firstId; id < firstId + bank.size(category); id++) {
+                Question question = bank.get(id);
+                questionTerms.clear();
+                tokenize(question.getQuestionText(), questionTerms);
+                RenderDescriptor descriptor = question.getRenderDescriptor();
+                for (int i = 0; i < descriptor.getLabelCount(); i++) {
+                    tokenize(descriptor.getLabel(i), questionTerms);
+                }
+                questionTerms.add(categoryTag);
+                for (String tag : bank.getTags(id)) {
+                    questionTerms.add(TAG_TERM_PREFIX + tag);
+                }
+                // Ids grow monotonically, so every list stays sorted
+                for (String term : questionTerms) {
+                    int termId = terms.computeIfAbsent(term, t -> {
+                        lists.add(new int[]{0, 0, 0, 0, 0});
+                        return lists.size() - 1;
+                    });
+                    int[] list = lists.get(termId);
+                    if (list[0] + 1 == list.length) {
+                        list = Arrays.copyOf(list, list.length * 2);
+                        lists.set(termId, list);
+                    }
+                    list[++list[0]] = id;
+                }
+            }
+        }
+
+        postingStarts = new int[lists.size()];
+        postingCounts = new int[lists.size()];
+        byte[] data = new byte[1024];
+        int size = 0;
+        for (int termId = 0; termId < lists.size(); termId++) {
+            int[] list = lists.get(termId);
+            postingStarts[termId] = size;
+            postingCounts[termId] = list[0];
+            int previous = 0;
+            for (int i = 1; i <= list[0]; i++) {
+                if (size + 5 > data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                int gap = list[i] - previous;
+                previous = list[i];
+                while ((gap & ~0x7F) != 0) {
+                    data[size++] = (byte) ((gap & 0x7F) | 0x80);
+                    gap >>>= 7;
+                }
+                data[size++] = (byte) gap;
+            }
+        }
+        postings = Arrays.copyOf(data, size);
+    }
+
+    QuestionBank getBank() {
+        return bank;
+    }
+
+    int getTermCount() {
+        return postingStarts.length;
+    }
+
+    int getPostingBytes() {
+        return postings.length;
+    }
+
+    /**
+     * Returns the ascending ids of the questions that match the query.
+     */
+    int[] search(String query) {
+        List<List<String>> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return new int[0];
+        }
+        if (clauses.size() == 1) {
+            return and(clauses.get(0));
+        }
+        int[][] results = new int[clauses.size()][];
+        int total = 0;
+        for (int i = 0; i < results.length; i++) {
+            results[i] = and(clauses.get(i));
+            total += results[i].length;
+        }
+        int[] union = new int[total];
+        int size = 0;
+        for (int[] result : results) {
+            System.arraycopy(result, 0, union, size, result.length);
+            size += result.length;
+        }
+        Arrays.sort(union);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || union[distinct - 1] != union[i]) {
+                union[distinct++] = union[i];
+            }
+        }
+        return Arrays.copyOf(union, distinct);
+    }
+
+    /**
+     * Splits a query into OR separated clauses of terms that must all match.
+     */
+    private static List<List<String>> parse(String query) {
+        List<List<String>> clauses = new ArrayList<>();
+        Set<String> clause = new LinkedHashSet<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR") || word.equals("|")) {
+                if (!clause.isEmpty()) {
+                    clauses.add(new ArrayList<>(clause));
+                    clause.clear();
+                }
+            } else if (word.regionMatches(true, 0, TAG_QUERY_PREFIX, 0, TAG_QUERY_PREFIX.length())) {
+                String tag = word.substring(TAG_QUERY_PREFIX.length()).toLowerCase(Locale.ROOT);
+                if (!tag.isEmpty()) {
+                    clause.add(TAG_TERM_PREFIX + tag);
+                }
+            } else {
+                tokenize(word, clause);
+            }
+        }
+        if (!clause.isEmpty()) {
+            clauses.add(new ArrayList<>(clause));
+        }
+        return clauses;
+    }
+
+    private int[] and(List<String> clause) {
+        Cursor[] cursors = new Cursor[clause.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            Integer termId = terms.get(clause.get(i));
+            if (termId == null) {
+                return new int[0];
+            }
+            cursors[i] = new Cursor(termId);
+        }
+        Arrays.sort(cursors, Comparator.comparingInt(c -> c.remaining));
+        int[] result = new int[cursors[0].remaining];
+        int size = 0;
+        int candidate = cursors[0].next();
+        outer:
+        while (candidate >= 0) {
+            for (int i = 1; i < cursors.length; i++) {
+                int found = cursors[i].advanceTo(candidate);
+                if (found < 0) {
+                    break outer;
+                }
+                if (found > candidate) {
+                    candidate = cursors[0].advanceTo(found);
+                    continue outer;
+                }
+            }
+            result[size++] = candidate;
+            candidate = cursors[0].next();
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Walks one posting list, decoding the gaps as it goes.
+     */
+    private final class Cursor {
+        private int position;
+        private int remaining;
+        private int current = -1;
+
+        Cursor(int termId) {
+            position = postingStarts[termId];
+            remaining = postingCounts[termId];
+        }
+
+        /**
+         * Returns the next id, or -1 at the end of the list.
+         */
+        int next() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = postings[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current = (current < 0 ? 0 : current) + gap;
+            return current;
+        }
+
+        /**
+         * Returns the first id at or after the target, or -1 when there is none.
+         */
+        int advanceTo(int target) {
+            int id = current;
+            while (id < target) {
+                id = next();
+                if (id < 0) {
+                    return -1;
+                }
+            }
+            return id;
+        }
+    }
+
+    private static void tokenize(String text, Collection<String> out) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Searches the bank from the command line:
+     * {@code java -cp quizgame.jar quizgame.SearchIndex world war ii OR tag:ww2}
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        SearchIndex index = new SearchIndex(QuestionBank.open());
+        long built = System.nanoTime();
+        int[] ids = index.search(String.join(" ", args));
+        long searched = System.nanoTime();
+        System.out.printf("Indexed %d terms (%d KiB of postings) in %d ms; %d matches in %d us%n",
+                index.getTermCount(), index.getPostingBytes() >> 10, (built - start) / 1_000_000,
+                ids.length, (searched - built) / 1000);
+        for (int i = 0; i < Math.min(ids.length, 50); i++) {
+            System.out.println(ids[i] + "\t" + index.bank.getCategory(ids[i]) + "\t" + index.bank.get(ids[i]).getQuestionText());
+        }
+    }
+}
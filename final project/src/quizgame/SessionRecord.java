@@ -0,0 +1,113 @@
+package quizgame;
+
+import java.io.*;
+
+/**
+ * Immutable summary of one finished game as stored in the session log.
+ */
+final class SessionRecord {
+    final long timestamp;
+    final String category;
+    final int players;
+    final long seed;
+    final byte[] outcomes;
+    final long[] answers;
+    final int[] latencyMillis;
+    final int[] scores;
+
+    SessionRecord(long timestamp, String category, int players, long seed,
+                  byte[] outcomes, long[] answers, int[] latencyMillis, int[] scores) {
+        this.timestamp = timestamp;
+        this.category = category;
+        this.players = players;
+        this.seed = seed;
+        this.outcomes = outcomes;
+        this.answers = answers;
+        this.latencyMillis = latencyMillis;
+        this.scores = scores;
+    }
+
+    /**
+     * Captures a finished session from the engine.
+     */
+    static SessionRecord of(QuizEngine engine, String category, long seed) {
+        int count = engine.getQuestionCount();
+        byte[] outcomes = new byte[count];
+        long[] answers = new long[count];
+        int[] latencies = new int[count];
+        for (int i = 0; i < count; i++) {
+            QuizEngine.Outcome outcome = engine.getOutcome(i);
+            outcomes[i] = (byte) (outcome == null ? -1 : outcome.ordinal());
+            answers[i] = engine.getAnswer(i);
+            latencies[i] = engine.getLatencyMillis(i);
+        }
+        int players = engine.getPlayerCount();
+        int[] scores = new int[players];
+        for (int i = 0; i < players; i++) {
+            scores[i] = engine.getScore(i);
+        }
+        return new SessionRecord(System.currentTimeMillis(), category, players, seed, outcomes, answers, latencies, scores);
+    }
+
+    int getQuestionCount() {
+        return outcomes.length;
+    }
+
+    byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 13 * outcomes.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(timestamp);
+            out.writeUTF(category);
+            // A varint, so the one byte counts of older records read unchanged
+            int count = players;
+            while ((count & ~0x7F) != 0) {
+                out.writeByte((count & 0x7F) | 0x80);
+                count >>>= 7;
+            }
+            out.writeByte(count);
+            out.writeLong(seed);
+            out.writeInt(outcomes.length);
+            for (int i = 0; i < outcomes.length; i++) {
+                out.writeByte(outcomes[i]);
+                out.writeLong(answers[i]);
+                out.writeInt(latencyMillis[i]);
+            }
+            for (int score : scores) {
+                out.writeInt(score);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static SessionRecord decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        long timestamp = in.readLong();
+        String category = in.readUTF();
+        int players = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            players |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        long seed = in.readLong();
+        int count = in.readInt();
+        byte[] outcomes = new byte[count];
+        long[] answers = new long[count];
+        int[] latencies = new int[count];
+        for (int i = 0; i < count; i++) {
+            outcomes[i] = in.readByte();
+            answers[i] = in.readLong();
+            latencies[i] = in.readInt();
+        }
+        int[] scores = new int[players];
+        for (int i = 0; i < players; i++) {
+            scores[i] = in.readInt();
+        }
+        return new SessionRecord(timestamp, category, players, seed, outcomes, answers, latencies, scores);
+    }
+}
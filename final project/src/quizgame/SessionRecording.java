@@ -0,0 +1,270 @@
+package quizgame;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The input of one played game as it reached the engine: every accepted
+ * answer, every countdown tick and every move to the next question, each with
+ * its time since the game started. Together with the questions that were shown
+ * this is enough to drive a fresh {@link QuizEngine} through the same game
+ * again, which is what {@link LoadGenerator} does. Questions are stored by
+ * their {@link StudyDeck#key} of category and text, since ids only hold for
+ * one bank snapshot and a reload gives changed categories new ones.
+ *
+ * Events are stored as a kind byte, the time since the previous event in
+ * microseconds as a varint and, for answers, the zigzag varint of the encoded
+ * answer, so a ten question game takes a couple of hundred bytes. A recording
+ * file is a magic number followed by length prefixed recordings. The player
+ * count is stored less one as a varint, which reads the flag byte of one and
+ * two player recordings made before tournaments the same way. Recordings made
+ * before question keys start with the category, and keep their question ids.
+ */
+final class SessionRecording {
+    static final byte ANSWER = 1;
+    static final byte TICK = 2;
+    static final byte NEXT = 3;
+
+    private static final int MAGIC = 0x51524331; // "QRC1"
+    // Leads a recording with question keys; no category name is that long
+    private static final int KEYED = 0xFFFF;
+
+    final String category;
+    final int players;
+    // Question keys, or null in recordings made before keys; those have the ids instead
+    final long[] questionKeys;
+    final int[] questionIds;
+    final byte[] kinds;
+    final long[] timesMicros;
+    final long[] answers;
+    final int[] scores;
+
+    SessionRecording(String category, int players, long[] questionKeys, int[] questionIds,
+                     byte[] kinds, long[] timesMicros, long[] answers, int[] scores) {
+        this.category = category;
+        this.players = players;
+        this.questionKeys = questionKeys;
+        this.questionIds = questionIds;
+        this.kinds = kinds;
+        this.timesMicros = timesMicros;
+        this.answers = answers;
+        this.scores = scores;
+    }
+
+    int getEventCount() {
+        return kinds.length;
+    }
+
+    /**
+     * Collects the events of a game while it is played. Not thread-safe; the
+     * GUI calls it on the EDT only.
+     */
+    static final class Recorder {
+        private final String category;
+        private final int players;
+        private final QuestionBank bank;
+        private final long startNanos = System.nanoTime();
+        private byte[] kinds = new byte[64];
+        private long[] timesMicros = new long[64];
+        private long[] answers = new long[64];
+        private int size;
+
+        /**
+         * @param bank the snapshot the game's questions come from
+         */
+        Recorder(String category, int players, QuestionBank bank) {
+            this.category = category;
+            this.players = players;
+            this.bank = bank;
+        }
+
+        void answer(long answer) {
+            add(ANSWER, answer);
+        }
+
+        void tick() {
+            add(TICK, 0);
+        }
+
+        void next() {
+            add(NEXT, 0);
+        }
+
+        private void add(byte kind, long answer) {
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+                timesMicros = Arrays.copyOf(timesMicros, size * 2);
+                answers = Arrays.copyOf(answers, size * 2);
+            }
+            kinds[size] = kind;
+            timesMicros[size] = (System.nanoTime() - startNanos) / 1000;
+            answers[size] = answer;
+            size++;
+        }
+
+        /**
+         * Ends the recording with the questions the engine actually showed.
+         */
+        SessionRecording finish(QuizEngine engine) {
+            List<Question> questions = engine.getQuestions();
+            long[] keys = new long[questions.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Question question = questions.get(i);
+                keys[i] = StudyDeck.key(bank.getCategory(question.getId()), question.getQuestionText());
+            }
+            int[] scores = new int[players];
+            for (int i = 0; i < players; i++) {
+                scores[i] = engine.getScore(i);
+            }
+            return new SessionRecording(category, players, keys, null, Arrays.copyOf(kinds, size),
+                    Arrays.copyOf(timesMicros, size), Arrays.copyOf(answers, size), scores);
+        }
+    }
+
+    byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + 8 * questionKeys.length + 3 * kinds.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(KEYED);
+            out.writeUTF(category);
+            writeVarint(out, players - 1);
+            writeVarint(out, questionKeys.length);
+            for (long key : questionKeys) {
+                out.writeLong(key);
+            }
+            // At least two scores, as one player recordings always had
+            for (int i = 0; i < Math.max(2, players); i++) {
+                writeVarint(out, i < players ? scores[i] : 0);
+            }
+            writeVarint(out, kinds.length);
+            long previous = 0;
+            for (int i = 0; i < kinds.length; i++) {
+                out.writeByte(kinds[i]);
+                writeVarint(out, timesMicros[i] - previous);
+                previous = timesMicros[i];
+                if (kinds[i] == ANSWER) {
+                    writeVarint(out, (answers[i] << 1) ^ (answers[i] >> 63));
+                }
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static SessionRecording decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        in.mark(2);
+        boolean keyed = in.readUnsignedShort() == KEYED;
+        if (!keyed) {
+            in.reset();
+        }
+        String category = in.readUTF();
+        int players = (int) readVarint(in) + 1;
+        int count = (int) readVarint(in);
+        long[] keys = keyed ? new long[count] : null;
+        int[] ids = keyed ? null : new int[count];
+        for (int i = 0; i < count; i++) {
+            if (keyed) {
+                keys[i] = in.readLong();
+            } else {
+                ids[i] = (int) readVarint(in);
+            }
+        }
+        int[] scores = new int[players];
+        for (int i = 0; i < Math.max(2, players); i++) {
+            int score = (int) readVarint(in);
+            if (i < players) {
+                scores[i] = score;
+            }
+        }
+        int events = (int) readVarint(in);
+        byte[] kinds = new byte[events];
+        long[] times = new long[events];
+        long[] answers = new long[events];
+        long time = 0;
+        for (int i = 0; i < events; i++) {
+            kinds[i] = in.readByte();
+            time += readVarint(in);
+            times[i] = time;
+            if (kinds[i] == ANSWER) {
+                long zigzag = readVarint(in);
+                answers[i] = (zigzag >>> 1) ^ -(zigzag & 1);
+            } else if (kinds[i] != TICK && kinds[i] != NEXT) {
+                throw new IOException("Unknown event kind " + kinds[i]);
+            }
+        }
+        return new SessionRecording(category, players, keys, ids, kinds, times, answers, scores);
+    }
+
+    /**
+     * Appends the recording to the file, creating it when needed.
+     */
+    static synchronized void append(Path file, SessionRecording recording) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+            if (fresh) {
+                out.writeInt(MAGIC);
+            }
+            byte[] data = recording.encode();
+            writeVarint(out, data.length);
+            out.write(data);
+        }
+    }
+
+    /**
+     * Reads every recording of the file; a torn last recording is ignored.
+     */
+    static List<SessionRecording> readAll(Path file) throws IOException {
+        List<SessionRecording> recordings = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a session recording file: " + file);
+            }
+            while (true) {
+                int length;
+                try {
+                    length = (int) readVarint(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] data = new byte[length];
+                try {
+                    in.readFully(data);
+                } catch (EOFException e) {
+                    break;
+                }
+                recordings.add(decode(data));
+            }
+        }
+        return recordings;
+    }
+
+    private static void writeVarint(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarint(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,48 @@
+package quizgame;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup timing hook. Each named milestone is reported once to the listener,
+ * in milliseconds since main() started and since the JVM started.
+ *
+ * Set -Dquiz.startupMetrics=true to print the milestones to standard out.
+ */
+final class StartupMetrics {
+    static final String FIRST_FRAME = "timeToFirstFrame";
+    static final String BACKGROUND_READY = "backgroundInitDone";
+
+    interface Listener {
+        void onMilestone(String name, long sinceMainMillis, long sinceJvmStartMillis);
+    }
+
+    private static final ConcurrentHashMap<String, Boolean> reported = new ConcurrentHashMap<>();
+    private static volatile long mainStartNanos = System.nanoTime();
+    private static volatile Listener listener = Boolean.getBoolean("quiz.startupMetrics")
+            ? (name, sinceMain, sinceJvm) -> System.out.println("startup " + name + ": " + sinceMain
+                    + " ms since main, " + sinceJvm + " ms since JVM start")
+            : null;
+
+    private StartupMetrics() {
+    }
+
+    static void mainStarted() {
+        mainStartNanos = System.nanoTime();
+    }
+
+    static void setListener(Listener newListener) {
+        listener = newListener;
+    }
+
+    static void milestone(String name) {
+        Listener current = listener;
+        if (current == null || reported.putIfAbsent(name, Boolean.TRUE) != null) {
+            return;
+        }
+        long sinceMain = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mainStartNanos);
+        long sinceJvm = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        current.onMilestone(name, sinceMain, sinceJvm);
+    }
+}
@@ -0,0 +1,428 @@
+package quizgame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One player's spaced repetition cards: every question the player got wrong,
+ * when to ask it again and how well it is known.
+ *
+ * A card starts in box 0 when its question is answered wrongly. A correct
+ * answer once the card is due moves it up a box, which lengthens the interval
+ * to the next review (see {@link #INTERVALS}). A wrong answer sends it back to
+ * box 0. Cards are keyed by a hash of the category and question text, so they
+ * survive bank reloads and restarts that renumber the questions.
+ *
+ * The deck file is a binary min-heap on due time: a header and then fixed size
+ * records in heap order, memory mapped. Scheduling a card rewrites only the
+ * O(log n) records its sift moves, and new cards are appended, so the file is
+ * never rewritten as a whole. Opening maps the file and reads only the keys,
+ * so the pages of a deck of hundreds of thousands of cards are brought in by
+ * the OS as they are used.
+ *
+ * The slot after the last record is a one record journal. A swap copies one
+ * of its two records there before overwriting either slot and clears it
+ * afterwards, so a process that dies halfway through a sift leaves a
+ * duplicated record, the journalled card and a broken heap order. Opening
+ * drops the duplicate, puts the journalled card back when it is missing and
+ * re-heapifies in place. No card is lost.
+ */
+final class StudyDeck implements Closeable {
+    /**
+     * The time until the next review for each box.
+     */
+    static final long[] INTERVALS = {
+            TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(10), TimeUnit.HOURS.toMillis(1),
+            TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(3), TimeUnit.DAYS.toMillis(7),
+            TimeUnit.DAYS.toMillis(16), TimeUnit.DAYS.toMillis(35), TimeUnit.DAYS.toMillis(90),
+            TimeUnit.DAYS.toMillis(180)};
+
+    private static final int MAGIC = 0x51534431; // "QSD1"
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    // key, due time, box, lapses
+    private static final int RECORD_SIZE = 24;
+    private static final int GROWTH = 1 << 20;
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int size;
+    private final LongIntMap positions = new LongIntMap();
+    private final byte[] swapA = new byte[RECORD_SIZE];
+    private final byte[] swapB = new byte[RECORD_SIZE];
+
+    private StudyDeck(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the deck of the player named by quiz.player (the login name by
+     * default) in the study directory of quiz.dataDir.
+     */
+    static StudyDeck open() throws IOException {
+        Path dir = Paths.get(System.getProperty("quiz.dataDir",
+                System.getProperty("user.home") + "/.quizgame"));
+        String player = System.getProperty("quiz.player", System.getProperty("user.name", "player"));
+        return open(dir.resolve("study").resolve(player.replaceAll("[^A-Za-z0-9._-]", "_") + ".deck"));
+    }
+
+    static StudyDeck open(Path file) throws IOException {
+        StudyDeck deck = new StudyDeck(file);
+        deck.load();
+        return deck;
+    }
+
+    /**
+     * The card key of a question; never 0.
+     */
+    static long key(String category, String questionText) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < category.length(); i++) {
+            hash = (hash ^ category.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ '\t') * 0x100000001b3L;
+        for (int i = 0; i < questionText.length(); i++) {
+            hash = (hash ^ questionText.charAt(i)) * 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a card after an answer. A wrong answer creates the card or sends
+     * it back to box 0; a correct one moves a due card up a box and is ignored
+     * for cards that are not due yet or not in the deck.
+     */
+    synchronized void review(long key, boolean correct, long now) throws IOException {
+        int position = positions.get(key, -1);
+        if (position < 0) {
+            if (!correct) {
+                append(key, now + INTERVALS[0]);
+            }
+            return;
+        }
+        int offset = offset(position);
+        long due = map.getLong(offset + 8);
+        int box = map.getInt(offset + 16);
+        if (correct) {
+            if (due > now) {
+                return;
+            }
+            box = Math.min(box + 1, INTERVALS.length - 1);
+        } else {
+            box = 0;
+            map.putInt(offset + 20, map.getInt(offset + 20) + 1);
+        }
+        long newDue = now + INTERVALS[box];
+        map.putInt(offset + 16, box);
+        map.putLong(offset + 8, newDue);
+        if (newDue < due) {
+            siftUp(position);
+        } else {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Returns the keys of at most max cards that are due, the most overdue
+     * first, without changing the deck. Walks the top of the heap only.
+     */
+    synchronized long[] due(long now, int max) {
+        long[] keys = new long[Math.min(max, size)];
+        int found = 0;
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> Long.compare(dueAt(a), dueAt(b)));
+        if (size > 0) {
+            frontier.add(0);
+        }
+        while (found < keys.length && !frontier.isEmpty()) {
+            int position = frontier.poll();
+            if (dueAt(position) > now) {
+                break;
+            }
+            keys[found++] = map.getLong(offset(position));
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                frontier.add(child);
+            }
+        }
+        return Arrays.copyOf(keys, found);
+    }
+
+    /**
+     * Returns the time the next card is due, or Long.MAX_VALUE for an empty deck.
+     */
+    synchronized long getNextDue() {
+        return size == 0 ? Long.MAX_VALUE : dueAt(0);
+    }
+
+    /**
+     * Drops a card, for questions that are no longer in the bank.
+     */
+    synchronized void remove(long key) {
+        int position = positions.get(key, -1);
+        if (position < 0) {
+            return;
+        }
+        positions.remove(key);
+        int last = size - 1;
+        long moved = map.getLong(offset(last));
+        if (position != last) {
+            // The last card fills the hole first, so a crash leaves a duplicate rather than a loss
+            map.get(offset(last), swapA);
+            map.put(offset(position), swapA);
+            positions.put(moved, position);
+        }
+        size = last;
+        map.putInt(COUNT_OFFSET, size);
+        // The old last slot is the journal now; a removed card must not come back from it
+        map.putLong(offset(size), 0);
+        if (position != last) {
+            siftUp(position);
+            siftDown(positions.get(moved, position));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            map.force();
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_SIZE;
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), GROWTH));
+        if (fresh) {
+            map.putInt(0, MAGIC);
+            map.putInt(4, 1);
+            map.putInt(COUNT_OFFSET, 0);
+            return;
+        }
+        if (map.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a study deck");
+        }
+        int count = Math.min(map.getInt(COUNT_OFFSET), (map.capacity() - HEADER_SIZE) / RECORD_SIZE - 1);
+        long journalled = map.getLong(offset(count));
+        byte[] journal = new byte[RECORD_SIZE];
+        map.get(offset(count), journal);
+        boolean ordered = true;
+        for (int i = 0; i < count; i++) {
+            long key = map.getLong(offset(i));
+            if (positions.get(key, -1) >= 0) {
+                continue;
+            }
+            if (size != i) {
+                map.get(offset(i), swapA);
+                map.put(offset(size), swapA);
+            }
+            positions.put(key, size);
+            ordered &= size == 0 || dueAt((size - 1) / 2) <= dueAt(size);
+            size++;
+        }
+        if (journalled != 0 && positions.get(journalled, -1) < 0) {
+            // Deduplication freed at least the slot the interrupted swap overwrote
+            map.put(offset(size), journal);
+            positions.put(journalled, size);
+            ordered = false;
+            size++;
+        }
+        map.putInt(COUNT_OFFSET, size);
+        map.putLong(offset(size), 0);
+        if (!ordered) {
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+    }
+
+    private void append(long key, long due) throws IOException {
+        // Room for the new record and the journal slot after it
+        long needed = offset(size + 2);
+        if (needed > map.capacity()) {
+            map.force();
+            long capacity = (long) map.capacity() * 2;
+            while (capacity < needed) {
+                capacity *= 2;
+            }
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+        int offset = offset(size);
+        map.putLong(offset, key);
+        map.putLong(offset + 8, due);
+        map.putInt(offset + 16, 0);
+        map.putInt(offset + 20, 1);
+        positions.put(key, size);
+        // The record goes in before the count so a crash never exposes a half written one
+        size++;
+        map.putInt(COUNT_OFFSET, size);
+        siftUp(size - 1);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (dueAt(parent) <= dueAt(position)) {
+                return;
+            }
+            swap(parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (dueAt(child) < dueAt(smallest)) {
+                    smallest = child;
+                }
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        map.get(offset(a), swapA);
+        map.get(offset(b), swapB);
+        map.put(offset(size), swapA);
+        map.put(offset(a), swapB);
+        map.put(offset(b), swapA);
+        map.putLong(offset(size), 0);
+        positions.put(map.getLong(offset(a)), a);
+        positions.put(map.getLong(offset(b)), b);
+    }
+
+    private long dueAt(int position) {
+        return map.getLong(offset(position) + 8);
+    }
+
+    private static int offset(int position) {
+        return HEADER_SIZE + position * RECORD_SIZE;
+    }
+
+    /**
+     * Finds the questions of a bank snapshot by card key. Building one reads
+     * the text of every question, so it belongs off the EDT.
+     */
+    static final class Keys {
+        private final QuestionBank bank;
+        private final LongIntMap ids = new LongIntMap();
+
+        Keys(QuestionBank bank) {
+            this.bank = bank;
+            for (String category : bank.getCategories()) {
+                int firstId = bank.getFirstId(category);
+                for (int id = firstId; id < firstId + bank.size(category); id++) {
+                    ids.put(key(category, bank.getText(id)), id);
+                }
+            }
+        }
+
+        QuestionBank getBank() {
+            return bank;
+        }
+
+        /**
+         * Returns the id of the question with the key, or -1 when the bank no longer has it.
+         */
+        int find(long key) {
+            return ids.get(key, -1);
+        }
+    }
+
+    /**
+     * Open addressing long to int map with linear probing; 0 is not a valid key.
+     */
+    private static final class LongIntMap {
+        private long[] keys = new long[32];
+        private int[] values = new int[32];
+        private int size;
+
+        int get(long key, int defaultValue) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+                if (keys[slot] == 0) {
+                    return defaultValue;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] == 0) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // Shift later entries of the probe run back so lookups still find them
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = 0;
+            size--;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
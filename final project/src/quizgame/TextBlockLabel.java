@@ -0,0 +1,74 @@
+package quizgame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Map;
+
+/**
+ * Label that paints a prebuilt {@link TextLayoutCache.Block}. Setting a block
+ * only swaps a reference; the label is laid out again only when the size of
+ * the text changes.
+ */
+class TextBlockLabel extends JComponent {
+    private TextLayoutCache.Block block = TextLayoutCache.Block.EMPTY;
+
+    TextBlockLabel() {
+        setOpaque(false);
+    }
+
+    TextLayoutCache.Block getBlock() {
+        return block;
+    }
+
+    void setBlock(TextLayoutCache.Block newBlock) {
+        if (newBlock == null) {
+            newBlock = TextLayoutCache.Block.EMPTY;
+        }
+        if (newBlock == block) {
+            return;
+        }
+        boolean resized = newBlock.width != block.width || newBlock.height != block.height;
+        block = newBlock;
+        if (resized) {
+            revalidate();
+        }
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Insets insets = getInsets();
+        return new Dimension(insets.left + insets.right + block.width, insets.top + insets.bottom + block.height);
+    }
+
+    @Override
+    public Dimension getMinimumSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        try {
+            Object hints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+            if (hints instanceof Map) {
+                g2d.addRenderingHints((Map<?, ?>) hints);
+            } else {
+                g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            }
+            g2d.setColor(getForeground());
+            Insets insets = getInsets();
+            block.draw(g2d, insets.left, insets.top);
+        } finally {
+            g2d.dispose();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package quizgame;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Question texts broken into lines ahead of time. A {@link Block} holds one
+ * TextLayout per line, built with a LineBreakMeasurer for a font and a wrap
+ * width, and is cached by (question id, font, width). {@link #prefetch} builds
+ * the blocks of upcoming questions on a background thread, so showing a
+ * question hands a finished block to a {@link TextBlockLabel} without parsing
+ * markup or measuring text on the EDT.
+ */
+final class TextLayoutCache {
+    // Antialiased, integer advances: the metrics Swing text is laid out with
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, false);
+
+    /**
+     * Immutable wrapped text. Width is the wrap width; lines are left aligned in it.
+     */
+    static final class Block {
+        static final Block EMPTY = new Block("", new TextLayout[0], new float[0], 0, 0);
+
+        final String text;
+        private final TextLayout[] lines;
+        private final float[] baselines;
+        final int width;
+        final int height;
+
+        private Block(String text, TextLayout[] lines, float[] baselines, int width, int height) {
+            this.text = text;
+            this.lines = lines;
+            this.baselines = baselines;
+            this.width = width;
+            this.height = height;
+        }
+
+        int getLineCount() {
+            return lines.length;
+        }
+
+        void draw(Graphics2D g, float x, float y) {
+            for (int i = 0; i < lines.length; i++) {
+                lines[i].draw(g, x, y + baselines[i]);
+            }
+        }
+    }
+
+    private static final class Key {
+        final int id;
+        final Font font;
+        final int width;
+
+        Key(int id, Font font, int width) {
+            this.id = id;
+            this.font = font;
+            this.width = width;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return id == other.id && width == other.width && font.equals(other.font);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, font, width);
+        }
+    }
+
+    private final Map<Key, Block> blocks;
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "text-layout");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    TextLayoutCache(int capacity) {
+        blocks = new LinkedHashMap<Key, Block>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Block> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the wrapped text of the question, building it now on a cache miss.
+     */
+    Block get(Question question, Font font, int width) {
+        Key key = new Key(question.getId(), font, width);
+        String text = question.getQuestionText();
+        Block block;
+        synchronized (blocks) {
+            block = blocks.get(key);
+        }
+        if (block != null && block.text.equals(text)) {
+            return block;
+        }
+        block = layout(text, font, width);
+        synchronized (blocks) {
+            blocks.put(key, block);
+        }
+        return block;
+    }
+
+    /**
+     * Builds the blocks of the given questions in the background.
+     */
+    void prefetch(List<Question> questions, int from, int count, Font font, int width) {
+        int end = Math.min(questions.size(), from + count);
+        for (int i = Math.max(0, from); i < end; i++) {
+            Question question = questions.get(i);
+            builder.execute(() -> get(question, font, width));
+        }
+    }
+
+    static Block layout(String text, Font font, int width) {
+        if (text == null || text.isEmpty()) {
+            return Block.EMPTY;
+        }
+        List<TextLayout> lines = new ArrayList<>();
+        List<Float> baselines = new ArrayList<>();
+        float y = 0;
+        for (String paragraph : text.split("\n", -1)) {
+            if (paragraph.isEmpty()) {
+                y += font.getLineMetrics(" ", FRC).getHeight();
+                continue;
+            }
+            AttributedString attributed = new AttributedString(paragraph);
+            attributed.addAttribute(TextAttribute.FONT, font);
+            LineBreakMeasurer measurer = new LineBreakMeasurer(attributed.getIterator(), FRC);
+            while (measurer.getPosition() < paragraph.length()) {
+                TextLayout line = measurer.nextLayout(width);
+                y += line.getAscent();
+                lines.add(line);
+                baselines.add(y);
+                y += line.getDescent() + line.getLeading();
+            }
+        }
+        float[] baselineArray = new float[baselines.size()];
+        for (int i = 0; i < baselineArray.length; i++) {
+            baselineArray[i] = baselines.get(i);
+        }
+        return new Block(text, lines.toArray(new TextLayout[0]), baselineArray, width, (int) Math.ceil(y));
+    }
+}
@@ -0,0 +1,38 @@
+package quizgame;
+
+/**
+ * Rendered as the two choices True and False; answer 0 means True.
+ */
+class TrueFalseQuestion extends Question {
+    private static final RenderDescriptor DESCRIPTOR =
+            new RenderDescriptor(RenderDescriptor.InputKind.CHOICE, new String[]{"True", "False"});
+
+    private final boolean correctAnswer;
+
+    public TrueFalseQuestion(String questionText, boolean correctAnswer, String imagePath) {
+        this(-1, questionText, correctAnswer, imagePath);
+    }
+
+    TrueFalseQuestion(int id, String questionText, boolean correctAnswer, String imagePath) {
+        super(id, questionText, imagePath);
+        this.correctAnswer = correctAnswer;
+    }
+
+    boolean getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    public boolean isCorrect(boolean selectedAnswer) {
+        return selectedAnswer == correctAnswer;
+    }
+
+    @Override
+    boolean evaluate(long answer) {
+        return (answer == 0) == correctAnswer;
+    }
+
+    @Override
+    RenderDescriptor getRenderDescriptor() {
+        return DESCRIPTOR;
+    }
+}
@@ -0,0 +1,96 @@
+package quizgame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Result of {@link BankValidator}: the problems found in a question bank, sorted
+ * by question id. Errors make a question unplayable or unanswerable; warnings
+ * point at data that is probably a mistake.
+ */
+final class ValidationReport {
+    enum Severity { ERROR, WARNING }
+
+    enum Kind {
+        /** The record could not be turned into a question. */
+        DECODE,
+        /** Empty question text or option label. */
+        EMPTY_TEXT,
+        /** Too few options, or more than the GUI can show. */
+        OPTION_COUNT,
+        /** The correct answer refers to options that do not exist. */
+        ANSWER_RANGE,
+        /** The image path does not name a resource. */
+        MISSING_IMAGE,
+        /** Another question has the same text after normalization. */
+        DUPLICATE
+    }
+
+    static final class Issue {
+        final Severity severity;
+        final Kind kind;
+        final int questionId;
+        final String category;
+        final String message;
+
+        Issue(Severity severity, Kind kind, int questionId, String category, String message) {
+            this.severity = severity;
+            this.kind = kind;
+            this.questionId = questionId;
+            this.category = category;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return severity + "\t" + category + "#" + questionId + "\t" + kind + "\t" + message;
+        }
+    }
+
+    private final int questionCount;
+    private final long elapsedNanos;
+    private final List<Issue> issues;
+
+    ValidationReport(int questionCount, long elapsedNanos, Collection<Issue> issues) {
+        this.questionCount = questionCount;
+        this.elapsedNanos = elapsedNanos;
+        List<Issue> sorted = new ArrayList<>(issues);
+        sorted.sort(Comparator.comparingInt((Issue issue) -> issue.questionId).thenComparing(issue -> issue.kind));
+        this.issues = Collections.unmodifiableList(sorted);
+    }
+
+    List<Issue> getIssues() {
+        return issues;
+    }
+
+    int count(Severity severity) {
+        int count = 0;
+        for (Issue issue : issues) {
+            if (issue.severity == severity) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    boolean hasErrors() {
+        return count(Severity.ERROR) > 0;
+    }
+
+    String summary() {
+        return "Validated " + questionCount + " questions in " + elapsedNanos / 1_000_000 + " ms: "
+                + count(Severity.ERROR) + " errors, " + count(Severity.WARNING) + " warnings";
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(summary()).append('\n');
+        for (Issue issue : issues) {
+            out.append(issue).append('\n');
+        }
+        return out.toString();
+    }
+}
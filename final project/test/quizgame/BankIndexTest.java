@@ -0,0 +1,154 @@
+package quizgame;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankIndexTest {
+    private static final List<String> BANK = List.of(
+            "# category\ttype\tanswer\timage\tquestion\toptions...",
+            "Math\tMC\t1\t\tWhat is 7 x 8?\t54\t56\t62",
+            "Math\tNUM\t1.41~0.005\t\tWhat is the square root of 2 to two decimal places?",
+            "",
+            "Science\tTF\ttrue\t/images/science.png\tWater boils at 100 °C at sea level.\ttags=Physics,water",
+            "Math\tMULTI\t0,2\t\tWhich of these are prime?\t2\t4\t5",
+            "History\tORDER\t1,0\t\tOldest first.\tMoon landing\tMagna Carta");
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void useTempIndexDir() {
+        System.setProperty("quiz.indexDir", dir.resolve("index").toString());
+    }
+
+    @AfterEach
+    void restoreIndexDir() {
+        System.clearProperty("quiz.indexDir");
+    }
+
+    @Test
+    void compiledIndexReadsBackEveryQuestionType() throws IOException {
+        Path source = write("bank.tsv", BANK);
+        BankIndex index = BankIndex.open(source);
+        assertEquals(List.of("Math", "Science", "History"), List.copyOf(index.getCategories()));
+        assertEquals(3, index.size("Math"));
+        assertEquals(0, index.size("Art"));
+        assertEquals(source.toAbsolutePath().toString(), index.getSource());
+        assertEquals(Files.size(source), index.getSourceSize());
+
+        MultipleChoiceQuestion choice = (MultipleChoiceQuestion) index.get("Math", 0, 40);
+        assertEquals(40, choice.getId());
+        assertEquals("What is 7 x 8?", choice.getQuestionText());
+        assertArrayEquals(new String[]{"54", "56", "62"}, choice.getOptions());
+        assertEquals(1, choice.getCorrectAnswer());
+
+        NumericQuestion numeric = (NumericQuestion) index.get("Math", 1, 41);
+        assertEquals(1.41, numeric.getCorrectValue());
+        assertEquals(0.005, numeric.getTolerance());
+
+        MultiSelectQuestion multi = (MultiSelectQuestion) index.get("Math", 2, 42);
+        assertEquals(MultiSelectQuestion.encode(new int[]{0, 2}), multi.getCorrectMask());
+
+        TrueFalseQuestion trueFalse = (TrueFalseQuestion) index.get("Science", 0, 0);
+        assertTrue(trueFalse.getCorrectAnswer());
+        assertEquals("Water boils at 100 °C at sea level.", index.getText("Science", 0));
+        assertEquals("/images/science.png", index.getImagePath("Science", 0));
+        assertArrayEquals(new String[]{"physics", "water"}, index.getTags("Science", 0));
+        assertArrayEquals(new String[0], index.getTags("Math", 0));
+
+        OrderingQuestion ordering = (OrderingQuestion) index.get("History", 0, 0);
+        assertEquals(OrderingQuestion.encode(new int[]{1, 0}), ordering.getCorrectOrder());
+        assertThrows(IndexOutOfBoundsException.class, () -> index.get("History", 1, 0));
+    }
+
+    @Test
+    void reopeningUsesTheIndexUntilTheSourceChanges() throws IOException {
+        Path source = write("bank.tsv", BANK);
+        long hash = BankIndex.open(source).contentHash("Math");
+        Path indexFile = indexFile();
+        FileTime compiled = Files.getLastModifiedTime(indexFile);
+        Files.setLastModifiedTime(indexFile, FileTime.fromMillis(compiled.toMillis() - 60_000));
+        FileTime backdated = Files.getLastModifiedTime(indexFile);
+
+        BankIndex reopened = BankIndex.open(source);
+        assertEquals(backdated, Files.getLastModifiedTime(indexFile));
+        assertEquals(hash, reopened.contentHash("Math"));
+
+        Files.write(source, Stream.concat(BANK.stream(), Stream.of("Math\tTF\tfalse\t\tIs 2 odd?"))
+                .collect(Collectors.toList()), StandardCharsets.UTF_8);
+        BankIndex changed = BankIndex.open(source);
+        assertEquals(4, changed.size("Math"));
+        assertNotEquals(hash, changed.contentHash("Math"));
+        // The hash depends on the content only
+        assertEquals(hash, BankIndex.open(write("copy.tsv", BANK)).contentHash("Math"));
+    }
+
+    @Test
+    void anIndexOfAnotherVersionIsRecompiled() throws IOException {
+        Path source = write("bank.tsv", BANK);
+        BankIndex.open(source);
+        Path indexFile = indexFile();
+        int version;
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 4);
+            version = header.getInt(0);
+            channel.write(ByteBuffer.allocate(4).putInt(0, version - 1), 4);
+        }
+
+        BankIndex reopened = BankIndex.open(source);
+        assertEquals("What is 7 x 8?", reopened.getText("Math", 0));
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 4);
+            assertEquals(version, header.getInt(0));
+        }
+    }
+
+    @Test
+    void sourcesWithTheSameContentKeepSeparateIndexes() throws IOException {
+        Path first = write("first.tsv", BANK);
+        Files.createDirectories(dir.resolve("other"));
+        Path second = write("other/first.tsv", BANK);
+        assertEquals(first.toAbsolutePath().toString(), BankIndex.open(first).getSource());
+        assertEquals(second.toAbsolutePath().toString(), BankIndex.open(second).getSource());
+        try (Stream<Path> files = Files.list(dir.resolve("index"))) {
+            assertEquals(2, files.filter(p -> p.toString().endsWith(".qbi")).count());
+        }
+    }
+
+    @Test
+    void aLineWithTooFewFieldsIsReported() throws IOException {
+        Path source = write("bank.tsv", List.of("Math\tMC\t1\t\tWhat is 7 x 8?\t54\t56", "Math\tMC\t1"));
+        IOException e = assertThrows(IOException.class, () -> BankIndex.open(source));
+        assertTrue(e.getMessage().startsWith("Line 2"), e.getMessage());
+    }
+
+    private Path write(String name, List<String> lines) throws IOException {
+        return Files.write(dir.resolve(name), lines, StandardCharsets.UTF_8);
+    }
+
+    private Path indexFile() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve("index"))) {
+            List<Path> indexes = files.filter(p -> p.toString().endsWith(".qbi")).collect(Collectors.toList());
+            assertEquals(1, indexes.size());
+            return indexes.get(0);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankValidatorTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void trivialDifferencesHashAlike() {
+        long hash = BankValidator.normalizedHash("What is the capital of France?");
+        assertEquals(hash, BankValidator.normalizedHash("  what is the CAPITAL of  France "));
+        assertEquals(hash, BankValidator.normalizedHash("What is the capital of Fránce..."));
+        assertNotEquals(hash, BankValidator.normalizedHash("What is the capital of Spain?"));
+    }
+
+    @Test
+    void aSymbolWithItsNameInParenthesesMatchesTheName() {
+        assertEquals(BankValidator.normalizedHash("What is the value of pi to two decimal places?"),
+                BankValidator.normalizedHash("What is the value of π (pi) to two decimal places?"));
+        // Only lone letters count as symbols; whole words in another script still tell questions apart
+        assertNotEquals(BankValidator.normalizedHash("What does \"спасибо\" mean?"),
+                BankValidator.normalizedHash("What does \"thanks\" mean?"));
+        assertNotEquals(0, BankValidator.normalizedHash("Ω"));
+    }
+
+    @Test
+    void reportsTheLaterCopyOfAQuestion() throws IOException {
+        Path source = dir.resolve("bank.tsv");
+        Files.write(source, List.of(
+                "Math\tMC\t0\t\tWhat is the value of π (pi) to two decimal places?\t3.14\t3.16",
+                "Math\tMC\t1\t\tWhat is 7 x 8?\t54\t56",
+                "Science\tNUM\t3.14~0.005\t\tWhat is the value of pi to two decimal places?"), StandardCharsets.UTF_8);
+        ValidationReport report = BankValidator.validate(QuestionBank.open(source), path -> true);
+        assertEquals(1, report.getIssues().size(), report.toString());
+        ValidationReport.Issue issue = report.getIssues().get(0);
+        assertEquals(ValidationReport.Kind.DUPLICATE, issue.kind);
+        assertEquals("Science", issue.category);
+    }
+}
@@ -0,0 +1,207 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuzzerMatchTest {
+    // Every question is true/false with true correct, so "0" is right and "1" wrong
+    private static final String RIGHT = "0";
+    private static final String WRONG = "1";
+    private static final long MILLI = 1_000_000L;
+
+    private final GameClock clock = new GameClock();
+    private final Recorder[] players = {new Recorder(), new Recorder()};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void firstCorrectAnswerTakesThePoint() {
+        BuzzerMatch match = start(3);
+        long now = System.nanoTime();
+        assertNull(match.answer(1, RIGHT, 0, now + MILLI));
+        assertEquals("LATE", match.answer(0, RIGHT, 0, now + 2 * MILLI));
+        // The claim only closes the question once it has settled
+        assertEquals(List.of(), players[0].results());
+        settle();
+        for (Recorder player : players) {
+            assertEquals(List.of("RESULT\tCORRECT\t0\t1\t2"), player.results());
+            assertTrue(player.last().startsWith("QUESTION\t1\t"));
+        }
+        assertEquals(1, match.getScore(1));
+    }
+
+    @Test
+    void anAnswerReceivedEarlierWinsEvenWhenProcessedLater() {
+        BuzzerMatch match = start(3);
+        long now = System.nanoTime();
+        assertNull(match.answer(1, RIGHT, 0, now + 2 * MILLI));
+        assertNull(match.answer(0, RIGHT, 0, now + MILLI));
+        settle();
+        assertEquals(List.of("RESULT\tCORRECT\t1\t0\t1"), players[1].results());
+        assertEquals(0, match.getScore(1));
+    }
+
+    @Test
+    void aWrongAnswerLocksThePlayerOut() {
+        BuzzerMatch match = start(3);
+        long now = System.nanoTime();
+        assertEquals("LOCKED", match.answer(0, WRONG, 0, now));
+        assertEquals("LOCKED", match.answer(0, RIGHT, 0, now + MILLI));
+        assertNull(match.answer(1, WRONG, 0, now + 2 * MILLI));
+        assertEquals(List.of("RESULT\tINCORRECT\t0\t0\t0"), players[0].results());
+
+        // With the opponent locked out nobody can beat a correct answer, so it closes at once
+        assertEquals("LOCKED", match.answer(1, WRONG, 1, now + 3 * MILLI));
+        assertNull(match.answer(0, RIGHT, 1, now + 4 * MILLI));
+        assertEquals("RESULT\tCORRECT\t1\t0\t1", players[1].results().get(1));
+    }
+
+    @Test
+    void answersToAClosedQuestionAreLate() {
+        BuzzerMatch match = start(2);
+        long now = System.nanoTime();
+        clock.tick(now + (QuizEngine.QUESTION_TIME + 1) * 1000 * MILLI);
+        assertEquals(List.of("RESULT\tTIMEOUT\t0\t0\t0"), players[0].results());
+        assertEquals("LATE", match.answer(0, RIGHT, 0, System.nanoTime()));
+
+        assertNull(match.answer(0, RIGHT, 1, System.nanoTime()));
+        settle();
+        assertEquals("OVER\t1\t0", players[1].lines.stream().filter(l -> l.startsWith("OVER")).findFirst().orElse(null));
+        assertTrue(match.isOver());
+        assertEquals("LATE", match.answer(1, RIGHT, -1, System.nanoTime()));
+    }
+
+    @Test
+    void concurrentAnswersCloseEachQuestionOnce() throws Exception {
+        int questions = 200;
+        BuzzerMatch match = start(questions);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        for (int sequence = 0; sequence < questions; sequence++) {
+            long now = System.nanoTime();
+            int index = sequence;
+            Thread[] threads = new Thread[2];
+            for (int p = 0; p < 2; p++) {
+                int player = p;
+                threads[p] = new Thread(() -> {
+                    try {
+                        barrier.await(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    // Player 0 is always received first, whichever thread gets there first
+                    match.answer(player, RIGHT, index, now + (player + 1) * MILLI);
+                });
+                threads[p].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            settle();
+        }
+        for (Recorder player : players) {
+            List<String> results = player.results();
+            assertEquals(questions, results.size());
+            for (String result : results) {
+                assertTrue(result.endsWith("\t1"), result);
+            }
+        }
+        assertEquals(questions, match.getScore(0));
+    }
+
+    @Test
+    void serverArbitratesByReceiveTime() throws Exception {
+        Path source = dir.resolve("bank.tsv");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            lines.add("Buzz\tTF\ttrue\t\tIs this question " + i + " true?");
+        }
+        Files.write(source, lines, StandardCharsets.UTF_8);
+        QuizServer server = new QuizServer(QuestionBank.open(source));
+        QuizServer.Loopback first = server.connectLoopback();
+        QuizServer.Loopback second = server.connectLoopback();
+        first.send("BUZZER\tBuzz\troom");
+        assertEquals("WAITING", first.receive(5, TimeUnit.SECONDS));
+        second.send("BUZZER\tBuzz\troom");
+        for (QuizServer.Loopback player : new QuizServer.Loopback[]{first, second}) {
+            assertTrue(next(player, "QUESTION").startsWith("QUESTION\t0\t"));
+        }
+
+        long now = System.nanoTime();
+        second.send("ANSWER\t" + RIGHT + "\t0", now + 2 * MILLI);
+        first.send("ANSWER\t" + RIGHT + "\t0", now + MILLI);
+        assertEquals("RESULT\tCORRECT\t1\t0\t1", next(first, "RESULT"));
+        assertEquals("RESULT\tCORRECT\t1\t0\t1", next(second, "RESULT"));
+        first.close();
+        second.close();
+    }
+
+    private BuzzerMatch start(int questionCount) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < questionCount; i++) {
+            questions.add(new TrueFalseQuestion(i, "Is this question " + i + " true?", true, ""));
+        }
+        BuzzerMatch match = new BuzzerMatch("Buzz", questions, clock, Runnable::run);
+        assertEquals(0, match.join(players[0]));
+        assertEquals(1, match.join(players[1]));
+        assertEquals(-1, match.join(new Recorder()));
+        return match;
+    }
+
+    private void settle() {
+        clock.tick(System.nanoTime() + (BuzzerMatch.SETTLE_MILLIS + 1) * MILLI);
+    }
+
+    private static String next(QuizServer.Loopback player, String prefix) throws InterruptedException {
+        String line;
+        while ((line = player.receive(5, TimeUnit.SECONDS)) != null) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private static final class Recorder implements QuizServer.Connection {
+        final ConcurrentLinkedQueue<String> lines = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void send(String line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        List<String> results() {
+            List<String> results = new ArrayList<>();
+            for (String line : lines) {
+                if (line.startsWith("RESULT")) {
+                    results.add(line);
+                }
+            }
+            return results;
+        }
+
+        String last() {
+            String last = null;
+            for (String line : lines) {
+                last = line;
+            }
+            return last;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameClockTest {
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void runsDueTasksInDeadlineOrder() {
+        GameClock clock = new GameClock();
+        List<Integer> ran = new ArrayList<>();
+        Random random = new Random(2);
+        List<Integer> delays = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int delay = 1000 + random.nextInt(100_000);
+            delays.add(delay);
+            clock.schedule(new GameClock.Task(() -> ran.add(delay)), delay);
+        }
+        long start = System.nanoTime();
+        clock.tick(start);
+        assertTrue(ran.isEmpty());
+        assertEquals(200, clock.pending());
+
+        clock.tick(start + 1_000_000 * MILLI);
+        delays.sort(null);
+        assertEquals(delays, ran);
+        assertEquals(0, clock.pending());
+    }
+
+    @Test
+    void cancelledAndRescheduledTasksDoNotRun() {
+        GameClock clock = new GameClock();
+        List<String> ran = new ArrayList<>();
+        GameClock.Task later = new GameClock.Task(() -> ran.add("later"));
+        GameClock.Task cancelled = new GameClock.Task(() -> ran.add("cancelled"));
+        GameClock.Task first = new GameClock.Task(() -> {
+            ran.add("first");
+            // Both are already due in this tick, but neither may run
+            clock.cancel(cancelled);
+            clock.schedule(later, 60_000);
+        });
+        clock.schedule(first, 10);
+        clock.schedule(cancelled, 20);
+        clock.schedule(later, 30);
+
+        clock.tick(System.nanoTime() + 1000 * MILLI);
+        assertEquals(List.of("first"), ran);
+        assertTrue(later.isScheduled());
+        assertFalse(cancelled.isScheduled());
+        assertFalse(clock.cancel(cancelled));
+        assertTrue(clock.cancel(later));
+        assertEquals(0, clock.pending());
+    }
+
+    @Test
+    void periodicTaskRepeatsUntilItCancelsItself() {
+        GameClock clock = new GameClock();
+        int[] runs = new int[1];
+        GameClock.Task[] task = new GameClock.Task[1];
+        task[0] = new GameClock.Task(() -> {
+            if (++runs[0] == 3) {
+                clock.cancel(task[0]);
+            }
+        });
+        clock.scheduleAtFixedRate(task[0], 100, 100);
+        long start = System.nanoTime();
+        for (int i = 1; i <= 10; i++) {
+            clock.tick(start + i * 1000 * MILLI);
+        }
+        assertEquals(3, runs[0]);
+        assertEquals(0, clock.pending());
+    }
+
+    @Test
+    void swingClockWakesForTheNextDeadline() throws InterruptedException {
+        GameClock clock = GameClock.swing(10);
+        CountDownLatch ran = new CountDownLatch(2);
+        clock.schedule(new GameClock.Task(ran::countDown), 200);
+        // Scheduling an earlier task re-arms the timer for it
+        clock.schedule(new GameClock.Task(ran::countDown), 20);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals(0, clock.pending());
+        clock.cancelAll();
+    }
+}
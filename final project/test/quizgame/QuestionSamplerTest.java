@@ -0,0 +1,97 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionSamplerTest {
+    @Test
+    void drawsDistinctIndicesInRange() {
+        Random random = new Random(4);
+        for (int trial = 0; trial < 500; trial++) {
+            int population = random.nextInt(200);
+            int count = random.nextInt(30);
+            QuestionSampler sampler = new QuestionSampler(random.nextInt(4));
+            for (int game = 0; game < 5; game++) {
+                int[] picks = sampler.draw(population, count, random.nextLong());
+                assertEquals(Math.min(population, count), picks.length);
+                assertEquals(picks.length, indices(picks).size());
+                for (int pick : picks) {
+                    assertTrue(pick >= 0 && pick < population);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameSeedAndHistoryGiveTheSameGame() {
+        QuestionSampler first = new QuestionSampler();
+        QuestionSampler second = new QuestionSampler();
+        for (long seed = 0; seed < 10; seed++) {
+            assertArrayEquals(first.draw(1000, 10, seed), second.draw(1000, 10, seed));
+        }
+    }
+
+    @Test
+    void avoidsTheLastGamesWhileTheCategoryHasOthers() {
+        QuestionSampler sampler = new QuestionSampler(3);
+        int[][] games = new int[20][];
+        for (int game = 0; game < games.length; game++) {
+            games[game] = sampler.draw(40, 10, game);
+            for (int earlier = Math.max(0, game - 3); earlier < game; earlier++) {
+                Set<Integer> overlap = indices(games[game]);
+                overlap.retainAll(indices(games[earlier]));
+                assertTrue(overlap.isEmpty(), "game " + game + " repeats game " + earlier);
+            }
+        }
+    }
+
+    @Test
+    void repeatsRecentQuestionsOnlyWhenTheCategoryRunsDry() {
+        QuestionSampler sampler = new QuestionSampler(3);
+        Set<Integer> first = indices(sampler.draw(15, 10, 1));
+        Set<Integer> second = indices(sampler.draw(15, 10, 2));
+        assertEquals(10, second.size());
+        for (int i = 0; i < 15; i++) {
+            // The five questions the first game left out must all be asked
+            if (!first.contains(i)) {
+                assertTrue(second.contains(i));
+            }
+        }
+    }
+
+    @Test
+    void drawRepeatingGoesThroughThePopulationAgain() {
+        int[] picks = new QuestionSampler().drawRepeating(4, 10, 7);
+        assertEquals(10, picks.length);
+        assertEquals(Set.of(0, 1, 2, 3), indices(Arrays.copyOfRange(picks, 0, 4)));
+        assertEquals(Set.of(0, 1, 2, 3), indices(Arrays.copyOfRange(picks, 4, 8)));
+        assertEquals(2, indices(Arrays.copyOfRange(picks, 8, 10)).size());
+        assertEquals(0, new QuestionSampler().drawRepeating(0, 10, 7).length);
+    }
+
+    @Test
+    void everyIndexIsEquallyLikely() {
+        int[] counts = new int[10];
+        QuestionSampler sampler = new QuestionSampler(0);
+        for (long seed = 0; seed < 20_000; seed++) {
+            counts[sampler.draw(10, 1, seed)[0]]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 1700 && count < 2300, Arrays.toString(counts));
+        }
+    }
+
+    private static Set<Integer> indices(int[] picks) {
+        Set<Integer> set = new HashSet<>();
+        for (int pick : picks) {
+            set.add(pick);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,87 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankIndexTest {
+    @Test
+    void equalScoresShareARank() {
+        RankIndex ranking = new RankIndex(4, 10);
+        ranking.setScore(0, 5);
+        ranking.setScore(1, 3);
+        ranking.setScore(2, 3);
+        assertEquals(1, ranking.getRank(0));
+        assertEquals(2, ranking.getRank(1));
+        assertEquals(2, ranking.getRank(2));
+        assertEquals(4, ranking.getRank(3));
+    }
+
+    @Test
+    void tiesAreListedInTheOrderTheScoreWasReached() {
+        RankIndex ranking = new RankIndex(3, 10);
+        ranking.setScore(2, 1);
+        ranking.setScore(0, 1);
+        ranking.setScore(1, 1);
+        assertArrayEquals(new int[]{2, 0, 1}, ranking.top(3));
+    }
+
+    @Test
+    void growsPastTheExpectedMaximum() {
+        RankIndex ranking = new RankIndex(3, 2);
+        ranking.setScore(1, 1000);
+        ranking.add(2, 7);
+        assertEquals(1000, ranking.getScore(1));
+        assertEquals(1, ranking.getRank(1));
+        assertEquals(2, ranking.getRank(2));
+        assertArrayEquals(new int[]{1, 2, 0}, ranking.top(5));
+        assertEquals(7, ranking.scoreAt(2));
+    }
+
+    @Test
+    void rejectsNegativeScoresAndPlacesOutOfRange() {
+        RankIndex ranking = new RankIndex(2, 5);
+        assertThrows(IllegalArgumentException.class, () -> ranking.setScore(0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> ranking.scoreAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> ranking.scoreAt(3));
+        assertThrows(IllegalArgumentException.class, () -> new RankIndex(0, 5));
+    }
+
+    @Test
+    void matchesABruteForceRanking() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 100; trial++) {
+            int players = 1 + random.nextInt(600);
+            RankIndex ranking = new RankIndex(players, random.nextInt(5));
+            int[] scores = new int[players];
+            for (int step = 0; step < 1000; step++) {
+                int player = random.nextInt(players);
+                int score = random.nextInt(50) == 0 ? random.nextInt(100) : Math.max(0, scores[player] + random.nextInt(5) - 1);
+                scores[player] = score;
+                ranking.setScore(player, score);
+
+                int probe = random.nextInt(players);
+                int above = 0;
+                for (int other : scores) {
+                    if (other > scores[probe]) {
+                        above++;
+                    }
+                }
+                assertEquals(above + 1, ranking.getRank(probe));
+            }
+
+            int[] descending = Arrays.stream(scores).map(s -> -s).sorted().map(s -> -s).toArray();
+            int[] top = ranking.top(10);
+            for (int i = 0; i < top.length; i++) {
+                assertEquals(descending[i], scores[top[i]]);
+            }
+            for (int place = 1; place <= players; place++) {
+                assertEquals(descending[place - 1], ranking.scoreAt(place));
+            }
+            assertEquals(players, ranking.countAbove(-1));
+        }
+    }
+}
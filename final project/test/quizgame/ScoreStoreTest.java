@@ -0,0 +1,122 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreStoreTest {
+    // File layout of ScoreStore: an 8 byte header, then records of length, CRC32 and payload
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopensWithTheSameLeaderboard() throws IOException {
+        Path file = dir.resolve("sessions.log");
+        try (ScoreStore store = ScoreStore.open(file, 100)) {
+            for (int i = 0; i < 30; i++) {
+                store.append(session(i, "Math", i % 7));
+            }
+            assertEquals(10, store.getLeaderboard().top("Math").size());
+        }
+        try (ScoreStore store = ScoreStore.open(file, 100)) {
+            List<Leaderboard.Entry> top = store.getLeaderboard().top("Math");
+            assertEquals(10, top.size());
+            // Four sessions scored 6; ties keep the earlier result first
+            assertEquals(6, top.get(0).score);
+            assertEquals(6, top.get(0).session.timestamp);
+            assertEquals(5, top.get(4).score);
+        }
+    }
+
+    @Test
+    void aTornRecordEndsTheLogAndIsOverwritten() throws IOException {
+        Path file = dir.resolve("sessions.log");
+        try (ScoreStore store = ScoreStore.open(file, 100)) {
+            for (int i = 0; i < 5; i++) {
+                store.append(session(i, "c" + i, 1));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = HEADER_SIZE;
+            for (int i = 0; i < 3; i++) {
+                position += RECORD_HEADER_SIZE + read(channel, position, 4).getInt();
+            }
+            // Flip a payload byte of the fourth record, as a write cut short would leave it
+            ByteBuffer first = read(channel, position + RECORD_HEADER_SIZE, 1);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~first.get(0)}), position + RECORD_HEADER_SIZE);
+        }
+        try (ScoreStore store = ScoreStore.open(file, 100)) {
+            assertEquals(1, store.getLeaderboard().top("c2").size());
+            assertTrue(store.getLeaderboard().top("c3").isEmpty());
+            assertTrue(store.getLeaderboard().top("c4").isEmpty());
+            store.append(session(5, "c5", 1));
+        }
+        assertEquals(List.of(0L, 1L, 2L, 5L), timestamps(file));
+    }
+
+    @Test
+    void compactsToTheRecentSessionsAndLeaderboardPlaces() throws IOException {
+        Path file = dir.resolve("sessions.log");
+        try (ScoreStore store = ScoreStore.open(file, 5)) {
+            store.append(session(0, "Math", 100));
+            for (int i = 1; i < 40; i++) {
+                store.append(session(i, "Science", i));
+            }
+        }
+        List<Long> kept = timestamps(file);
+        assertTrue(kept.size() <= 2 * 5 + ScoreStore.LEADERBOARD_SIZE + 1, kept.toString());
+        assertTrue(kept.contains(0L));
+        for (long i = 35; i < 40; i++) {
+            assertTrue(kept.contains(i), kept.toString());
+        }
+        try (ScoreStore store = ScoreStore.open(file, 5)) {
+            assertEquals(100, store.getLeaderboard().top("Math").get(0).score);
+            List<Leaderboard.Entry> top = store.getLeaderboard().top("Science");
+            assertEquals(ScoreStore.LEADERBOARD_SIZE, top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(39 - i, top.get(i).score);
+            }
+        }
+    }
+
+    private static SessionRecord session(long timestamp, String category, int score) {
+        return new SessionRecord(timestamp, category, 1, timestamp, new byte[]{0}, new long[]{0},
+                new int[]{1000}, new int[]{score});
+    }
+
+    private static List<Long> timestamps(Path file) throws IOException {
+        List<Long> timestamps = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = HEADER_SIZE;
+            while (position + RECORD_HEADER_SIZE <= channel.size()) {
+                int length = read(channel, position, 4).getInt();
+                if (length <= 0) {
+                    break;
+                }
+                byte[] data = new byte[length];
+                read(channel, position + RECORD_HEADER_SIZE, length).get(data);
+                timestamps.add(SessionRecord.decode(data).timestamp);
+                position += RECORD_HEADER_SIZE + length;
+            }
+        }
+        return timestamps;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.read(buffer, position);
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,150 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+    private static final String[] WORDS = {"war", "world", "ii", "river", "Nile", "atom", "pi", "moon", "king", "war-time", "1945"};
+    private static final String[] CATEGORIES = {"History", "Science", "Math", "Geography"};
+    private static final String[] TAGS = {"ww2", "space", "africa", "numbers"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsWordsTagsAndCategories() throws IOException {
+        SearchIndex index = new SearchIndex(bank(List.of(
+                "History\tMC\t0\t\tWhen did World War II end?\t1945\t1918\ttags=ww2",
+                "History\tTF\ttrue\t\tThe Magna Carta was signed in 1215.",
+                "Science\tMC\t1\t\tWhich planet is nearest the Sun?\tVenus\tMercury\ttags=space")));
+        assertArrayEquals(new int[]{0}, index.search("world war"));
+        assertArrayEquals(new int[]{0}, index.search("WAR 1945"));
+        assertArrayEquals(new int[]{0, 2}, index.search("tag:ww2 OR mercury"));
+        assertArrayEquals(new int[]{0, 1}, index.search("tag:history"));
+        assertArrayEquals(new int[]{1}, index.search("tag:History true"));
+        assertArrayEquals(new int[0], index.search("world moon"));
+        assertArrayEquals(new int[0], index.search("  "));
+        assertArrayEquals(new int[0], index.search("tag:"));
+    }
+
+    @Test
+    void matchesALinearScan() throws IOException {
+        Random random = new Random(5);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            StringBuilder line = new StringBuilder(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            line.append("\tMC\t0\t\t").append(words(random, 1 + random.nextInt(6)));
+            for (int option = 0; option < 2 + random.nextInt(3); option++) {
+                line.append('\t').append(words(random, 1 + random.nextInt(2)));
+            }
+            if (random.nextInt(3) == 0) {
+                line.append("\ttags=").append(TAGS[random.nextInt(TAGS.length)]);
+            }
+            lines.add(line.toString());
+        }
+        QuestionBank bank = bank(lines);
+        SearchIndex index = new SearchIndex(bank);
+        List<Set<String>> terms = terms(bank);
+
+        for (int trial = 0; trial < 2000; trial++) {
+            StringBuilder query = new StringBuilder();
+            int clauses = 1 + random.nextInt(3);
+            for (int c = 0; c < clauses; c++) {
+                if (c > 0) {
+                    query.append(random.nextBoolean() ? " OR " : " | ");
+                }
+                for (int w = 0; w < 1 + random.nextInt(3); w++) {
+                    int pick = random.nextInt(10);
+                    String word = pick == 0 ? "tag:" + TAGS[random.nextInt(TAGS.length)]
+                            : pick == 1 ? "TAG:" + CATEGORIES[random.nextInt(CATEGORIES.length)]
+                            : WORDS[random.nextInt(WORDS.length)];
+                    query.append(word).append(' ');
+                }
+            }
+            assertArrayEquals(scan(terms, query.toString()), index.search(query.toString()), query.toString());
+        }
+    }
+
+    private QuestionBank bank(List<String> lines) throws IOException {
+        Path source = dir.resolve("bank" + lines.hashCode() + ".tsv");
+        Files.write(source, lines, StandardCharsets.UTF_8);
+        return QuestionBank.open(source);
+    }
+
+    private static String words(Random random, int count) {
+        StringJoiner words = new StringJoiner(random.nextBoolean() ? " " : ", ");
+        for (int i = 0; i < count; i++) {
+            words.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return words.toString();
+    }
+
+    /**
+     * The terms a question can be found by, per id: its words, its option labels, and its category and tags as "#tag".
+     */
+    private static List<Set<String>> terms(QuestionBank bank) {
+        List<Set<String>> terms = new ArrayList<>(Collections.nCopies(bank.getQuestionCount(), null));
+        for (String category : bank.getCategories()) {
+            for (int id = bank.getFirstId(category); id < bank.getFirstId(category) + bank.size(category); id++) {
+                Question question = bank.get(id);
+                Set<String> words = new HashSet<>(terms(question.getQuestionText()));
+                RenderDescriptor descriptor = question.getRenderDescriptor();
+                for (int i = 0; i < descriptor.getLabelCount(); i++) {
+                    words.addAll(terms(descriptor.getLabel(i)));
+                }
+                words.add("#" + category.toLowerCase(Locale.ROOT));
+                for (String tag : bank.getTags(id)) {
+                    words.add("#" + tag);
+                }
+                terms.set(id, words);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * The query semantics spelled out: every id whose terms satisfy one of the OR clauses.
+     */
+    private static int[] scan(List<Set<String>> terms, String query) {
+        List<List<String>> clauses = new ArrayList<>();
+        clauses.add(new ArrayList<>());
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR") || word.equals("|")) {
+                clauses.add(new ArrayList<>());
+            } else if (word.toLowerCase(Locale.ROOT).startsWith("tag:")) {
+                clauses.get(clauses.size() - 1).add("#" + word.substring(4).toLowerCase(Locale.ROOT));
+            } else {
+                clauses.get(clauses.size() - 1).addAll(terms(word));
+            }
+        }
+        clauses.removeIf(List::isEmpty);
+        List<Integer> matches = new ArrayList<>();
+        for (int id = 0; id < terms.size(); id++) {
+            for (List<String> clause : clauses) {
+                if (terms.get(id).containsAll(clause)) {
+                    matches.add(id);
+                    break;
+                }
+            }
+        }
+        return matches.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,140 @@
+package quizgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudyDeckTest {
+    // File layout of StudyDeck: a 16 byte header with the count at 8, then 24 byte records
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 24;
+    private static final long MINUTE = 60_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void wrongAnswerCreatesACardAndCorrectOnesMoveItUp() throws IOException {
+        try (StudyDeck deck = StudyDeck.open(dir.resolve("p.deck"))) {
+            deck.review(7, true, 0);
+            assertEquals(0, deck.size());
+
+            deck.review(7, false, 0);
+            assertEquals(1, deck.size());
+            assertEquals(StudyDeck.INTERVALS[0], deck.getNextDue());
+            assertArrayEquals(new long[0], deck.due(MINUTE - 1, 10));
+
+            // Not due yet, so the correct answer does not count
+            deck.review(7, true, MINUTE - 1);
+            assertEquals(MINUTE, deck.getNextDue());
+
+            deck.review(7, true, MINUTE);
+            assertEquals(MINUTE + StudyDeck.INTERVALS[1], deck.getNextDue());
+
+            deck.review(7, false, 2 * MINUTE);
+            assertEquals(2 * MINUTE + StudyDeck.INTERVALS[0], deck.getNextDue());
+        }
+    }
+
+    @Test
+    void keyIsNeverZero() {
+        assertNotEquals(0, StudyDeck.key("Math", "What is 7 x 8?"));
+        assertNotEquals(StudyDeck.key("Math", "a"), StudyDeck.key("Science", "a"));
+    }
+
+    @Test
+    void matchesAModelAcrossReviewsRemovalsAndReopening() throws IOException {
+        Path file = dir.resolve("p.deck");
+        Map<Long, Long> due = new HashMap<>();
+        Random random = new Random(3);
+        long now = 1_000_000_000L;
+        try (StudyDeck deck = StudyDeck.open(file)) {
+            for (int i = 0; i < 20_000; i++) {
+                long key = 1 + random.nextInt(Integer.MAX_VALUE);
+                deck.review(key, false, now + i);
+                due.put(key, now + i + StudyDeck.INTERVALS[0]);
+            }
+            List<Long> keys = new ArrayList<>(due.keySet());
+            Map<Long, Integer> boxes = new HashMap<>();
+            now += 1_000_000_000L;
+            for (int i = 0; i < 20_000; i++) {
+                long key = keys.get(random.nextInt(keys.size()));
+                boolean correct = random.nextBoolean();
+                long time = now + i * 10L;
+                deck.review(key, correct, time);
+                if (!correct) {
+                    boxes.put(key, 0);
+                    due.put(key, time + StudyDeck.INTERVALS[0]);
+                } else if (due.get(key) <= time) {
+                    int box = Math.min(boxes.getOrDefault(key, 0) + 1, StudyDeck.INTERVALS.length - 1);
+                    boxes.put(key, box);
+                    due.put(key, time + StudyDeck.INTERVALS[box]);
+                }
+            }
+            for (int i = 0; i < 500; i++) {
+                long key = keys.remove(random.nextInt(keys.size()));
+                deck.remove(key);
+                due.remove(key);
+            }
+            assertMatches(due, deck, now + 5_000_000L);
+        }
+        try (StudyDeck reopened = StudyDeck.open(file)) {
+            assertMatches(due, reopened, now + 5_000_000L);
+        }
+    }
+
+    @Test
+    void recoversFromASwapCutShort() throws IOException {
+        Path file = dir.resolve("p.deck");
+        Map<Long, Long> due = new HashMap<>();
+        try (StudyDeck deck = StudyDeck.open(file)) {
+            for (long key = 1; key <= 100; key++) {
+                deck.review(key, false, 1000 * key);
+                due.put(key, 1000 * key + StudyDeck.INTERVALS[0]);
+            }
+        }
+        // Replay StudyDeck.swap(1, 3) up to a crash: record 1 journalled, record 3 copied over it
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int count = read(channel, 8, 4).getInt();
+            ByteBuffer record1 = read(channel, HEADER_SIZE + RECORD_SIZE, RECORD_SIZE);
+            ByteBuffer record3 = read(channel, HEADER_SIZE + 3 * RECORD_SIZE, RECORD_SIZE);
+            channel.write(record1, HEADER_SIZE + (long) count * RECORD_SIZE);
+            channel.write(record3, HEADER_SIZE + RECORD_SIZE);
+        }
+        try (StudyDeck reopened = StudyDeck.open(file)) {
+            assertMatches(due, reopened, Long.MAX_VALUE);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.read(buffer, position);
+        return buffer.flip();
+    }
+
+    private static void assertMatches(Map<Long, Long> due, StudyDeck deck, long now) {
+        assertEquals(due.size(), deck.size());
+        List<Map.Entry<Long, Long>> expected = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : due.entrySet()) {
+            if (entry.getValue() <= now) {
+                expected.add(entry);
+            }
+        }
+        expected.sort(Map.Entry.comparingByValue());
+        long[] keys = deck.due(now, 200);
+        assertEquals(Math.min(200, expected.size()), keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            // Cards due at the same time may come in either order
+            assertEquals(expected.get(i).getValue(), due.get(keys[i]));
+        }
+        assertEquals(due.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE), deck.getNextDue());
+    }
+}